@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,13 +19,19 @@ import springfox.documentation.spring.web.plugins.Docket;
 @EnableScheduling
 public class Application extends SpringBootServletInitializer {
 
+  // note: startup steps are recorded for the actuator endpoint 'startup'
+  private static final int STARTUP_STEPS_CAPACITY = 10_000;
+
   public static void main(String[] args) {
-    SpringApplication.run(Application.class, args);
+    SpringApplication application = new SpringApplication(Application.class);
+    application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+    application.run(args);
   }
 
   @Override
   protected SpringApplicationBuilder configure(SpringApplicationBuilder application) {
-    return application.sources(Application.class);
+    return application.sources(Application.class)
+             .applicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
   }
 
   @Bean
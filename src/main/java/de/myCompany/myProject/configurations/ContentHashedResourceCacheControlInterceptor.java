@@ -0,0 +1,61 @@
+package de.myCompany.myProject.configurations;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Cache-Control of the static frontend: an existing file with a content hash in its name ("app.&lt;hash&gt;.js", see
+ * {@code fingerprintStaticAssets} in build.gradle and the naming of the Vue build) never changes and is cached
+ * forever, the html pages (which reference these files) are revalidated, so a deployment is picked up by the next
+ * request. All other files keep the default (heuristic caching by the browser).
+ */
+class ContentHashedResourceCacheControlInterceptor implements HandlerInterceptor {
+
+    // note: CacheControl supports the directive 'immutable' only from Spring 6
+    static final String CONTENT_HASHED = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().getHeaderValue() + ", immutable";
+
+    static final String PAGE = CacheControl.noCache().getHeaderValue();
+
+    private static final Pattern CONTENT_HASHED_NAME = Pattern.compile(".+\\.[0-9a-f]{8,}\\.[^./]+");
+
+    private final String pathPrefix;
+
+    private final Resource location;
+
+    ContentHashedResourceCacheControlInterceptor(String pathPrefix, Resource location) {
+        this.pathPrefix = pathPrefix;
+        this.location = location;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+
+        String lookupPath = UrlPathHelper.defaultInstance.getLookupPathForRequest(request);
+        if (!lookupPath.startsWith(pathPrefix)) {
+            return true;
+        }
+
+        String path = lookupPath.substring(pathPrefix.length());
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+        if (fileName.endsWith(".html")) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, PAGE);
+        } else if (CONTENT_HASHED_NAME.matcher(fileName).matches() && exists(path)) {
+            // note: a missing file (e.g. requested from an instance not yet deployed) must not be cached forever
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CONTENT_HASHED);
+        }
+
+        return true;
+    }
+
+    private boolean exists(String path) throws IOException {
+        return !path.contains("..") && location.createRelative(path).exists();
+    }
+}
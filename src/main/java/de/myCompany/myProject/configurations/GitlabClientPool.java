@@ -0,0 +1,248 @@
+package de.myCompany.myProject.configurations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.myCompany.myProject.configurations.GitlabEndpointProperties.Target;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Distributes the Gitlab requests over several targets (endpoint and token, see {@link GitlabEndpointProperties}):
+ * <ul>
+ *   <li>queries go to READ targets, mutations to WRITE targets (as given by the {@link GitlabRoutingContext} of the
+ *   calling thread; a request without context might write, it goes to WRITE targets)</li>
+ *   <li>queries of a project we wrote to recently go to WRITE targets as well, so they read our own writes even if a
+ *   READ replica lags behind</li>
+ *   <li>the target with the fewest outstanding requests relative to its weight is chosen (a request is outstanding until
+ *   its response body is consumed or released)</li>
+ *   <li>a rate limited target is taken out of rotation until its reset time, a rejected request (429) is sent to
+ *   another target once</li>
+ * </ul>
+ */
+public class GitlabClientPool implements ExchangeFilterFunction {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GitlabClientPool.class);
+
+  private static final String RATE_LIMIT_REMAINING = "RateLimit-Remaining";
+
+  private static final String RATE_LIMIT_RESET = "RateLimit-Reset";
+
+  private static final Duration DEFAULT_SUSPENSION = Duration.ofMinutes(1);
+
+  private final List<PooledTarget> targets;
+
+  // note: rotates the start of the selection, so targets with equal load and weight are used in turn
+  private final AtomicInteger rotation = new AtomicInteger();
+
+  // note: projects written by a mutation within the read-after-write window (value unused)
+  private final Cache<String, Boolean> writtenProjects;
+
+  public GitlabClientPool(List<Target> targets, Duration readAfterWriteWindow, MeterRegistry meterRegistry) {
+    this.targets = targets.stream().map(target -> new PooledTarget(target, meterRegistry)).toList();
+    this.writtenProjects = Caffeine.newBuilder().expireAfterWrite(readAfterWriteWindow).build();
+
+    checkArgument(this.targets.stream().anyMatch(target -> target.usage().accepts(false)), "No Gitlab target for queries configured!");
+    checkArgument(this.targets.stream().anyMatch(target -> target.usage().accepts(true)), "No Gitlab target for mutations configured!");
+  }
+
+  @Override
+  public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+    GitlabRoutingContext context = GitlabRoutingContext.current();
+    if (context == null) {
+      LOGGER.debug("Gitlab request {} {} without routing context, sent to a WRITE target", request.method(), request.url());
+    }
+    boolean write = context == null || context.isWrite();
+    String projectPath = context == null ? null : context.getProjectPath();
+
+    if (!write || projectPath == null) {
+      boolean readOwnWrites = projectPath != null && writtenProjects.getIfPresent(projectPath) != null;
+      return exchange(request, next, write || readOwnWrites, new HashSet<>());
+    }
+
+    // note: the window starts with the mutation (concurrent queries) and again when Gitlab answered it
+    writtenProjects.put(projectPath, Boolean.TRUE);
+    return exchange(request, next, true, new HashSet<>())
+             .doFinally(signal -> writtenProjects.put(projectPath, Boolean.TRUE));
+  }
+
+  int getOutstanding(String targetName) {
+    return targets.stream()
+             .filter(target -> target.name().equals(targetName))
+             .mapToInt(target -> target.outstanding.get())
+             .sum();
+  }
+
+  private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next, boolean write, Set<PooledTarget> tried) {
+    PooledTarget target = select(write, tried);
+    tried.add(target);
+    target.outstanding.incrementAndGet();
+    AtomicBoolean released = new AtomicBoolean();
+    Runnable release = () -> {
+      if (released.compareAndSet(false, true)) {
+        target.outstanding.decrementAndGet();
+      }
+    };
+
+    ClientRequest routedRequest = ClientRequest.from(request)
+                                    .url(target.url)
+                                    .headers(headers -> headers.setBearerAuth(target.token()))
+                                    .build();
+
+    // note: outstanding until the response body is consumed or released, not only until the headers arrived
+    return next.exchange(routedRequest)
+             .doOnSuccess(response -> {
+               if (response == null) {
+                 release.run();
+               }
+             })
+             .doOnError(cause -> release.run())
+             .doOnCancel(release)
+             .flatMap(response -> {
+               boolean rejected = response.statusCode() == HttpStatus.TOO_MANY_REQUESTS;
+               updateRateLimit(target, rejected, response.headers().asHttpHeaders());
+
+               if (rejected && hasAlternative(write, tried)) {
+                 return response.releaseBody()
+                          .doFinally(signal -> release.run())
+                          .then(exchange(request, next, write, tried));
+               }
+               return Mono.just(response.mutate().body(body -> body.doFinally(signal -> release.run())).build());
+             });
+  }
+
+  /**
+   * @return the available target with the lowest load (outstanding requests / weight); if all are rate limited, the one
+   * available again first
+   */
+  private PooledTarget select(boolean write, Set<PooledTarget> excluded) {
+    Instant now = Instant.now();
+    int offset = Math.floorMod(rotation.getAndIncrement(), targets.size());
+    PooledTarget selected = null;
+    PooledTarget availableFirst = null;
+
+    for (int index = 0; index < targets.size(); index++) {
+      PooledTarget target = targets.get((offset + index) % targets.size());
+      if (!target.usage().accepts(write) || excluded.contains(target)) {
+        continue;
+      }
+      if (target.suspendedUntil.isAfter(now)) {
+        if (availableFirst == null || target.suspendedUntil.isBefore(availableFirst.suspendedUntil)) {
+          availableFirst = target;
+        }
+        continue;
+      }
+      if (selected == null || target.isLessLoadedThan(selected)) {
+        selected = target;
+      }
+    }
+
+    if (selected != null) {
+      return selected;
+    }
+    if (availableFirst != null) {
+      return availableFirst;
+    }
+    // note: only if all targets were tried already
+    return targets.stream().filter(target -> target.usage().accepts(write)).findFirst().orElseThrow();
+  }
+
+  private boolean hasAlternative(boolean write, Set<PooledTarget> tried) {
+    Instant now = Instant.now();
+    return targets.stream()
+             .anyMatch(target -> target.usage().accepts(write) && !tried.contains(target) && !target.suspendedUntil.isAfter(now));
+  }
+
+  private void updateRateLimit(PooledTarget target, boolean rejected, HttpHeaders headers) {
+    String remaining = headers.getFirst(RATE_LIMIT_REMAINING);
+    if (!rejected && !"0".equals(remaining)) {
+      return;
+    }
+
+    Instant suspendedUntil = resetTime(headers);
+    target.suspendedUntil = suspendedUntil;
+    target.rateLimitedCounter.increment();
+    LOGGER.warn("Gitlab target '{}' rate limited until {}", target.name(), suspendedUntil);
+  }
+
+  private static Instant resetTime(HttpHeaders headers) {
+    try {
+      String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+      if (retryAfter != null) {
+        return Instant.now().plusSeconds(Long.parseLong(retryAfter.trim()));
+      }
+      String reset = headers.getFirst(RATE_LIMIT_RESET);
+      if (reset != null) {
+        return Instant.ofEpochSecond(Long.parseLong(reset.trim()));
+      }
+    } catch (NumberFormatException cause) {
+      LOGGER.debug("Gitlab rate limit headers could not be parsed", cause);
+    }
+    return Instant.now().plus(DEFAULT_SUSPENSION);
+  }
+
+  private static class PooledTarget {
+    private final Target target;
+
+    private final URI url;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final Counter rateLimitedCounter;
+
+    private volatile Instant suspendedUntil = Instant.MIN;
+
+    PooledTarget(Target target, MeterRegistry meterRegistry) {
+      checkArgument(target.getWeight() > 0, "Weight of Gitlab target '%s' must be positive!", target.getName());
+
+      this.target = target;
+      this.url = URI.create(target.getUrl());
+      this.rateLimitedCounter = Counter.builder("gitlab.client.rate-limited")
+                                  .description("Number of responses that took a Gitlab target out of rotation")
+                                  .tag("target", target.getName())
+                                  .register(meterRegistry);
+      Gauge.builder("gitlab.client.outstanding", outstanding, AtomicInteger::get)
+        .description("Number of outstanding requests of a Gitlab target")
+        .tag("target", target.getName())
+        .register(meterRegistry);
+    }
+
+    String name() {
+      return target.getName();
+    }
+
+    String token() {
+      return target.getToken();
+    }
+
+    GitlabEndpointProperties.Usage usage() {
+      return target.getUsage();
+    }
+
+    boolean isLessLoadedThan(PooledTarget other) {
+      // note: compares outstanding / weight without division
+      long load = (long) outstanding.get() * other.target.getWeight();
+      long otherLoad = (long) other.outstanding.get() * target.getWeight();
+      return load < otherLoad || (load == otherLoad && target.getWeight() > other.target.getWeight());
+    }
+  }
+}
@@ -1,32 +1,73 @@
 package de.myCompany.myProject.configurations;
 
+import de.myCompany.myProject.configurations.GitlabEndpointProperties.Target;
+import de.myCompany.myProject.monitoring.GitlabCallTraceFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
 import java.util.Collections;
-import org.springframework.beans.factory.annotation.Value;
+import java.util.List;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
 @Configuration
+@EnableConfigurationProperties(GitlabEndpointProperties.class)
 public class GitlabConfig {
 
-  @Value(value = "${graphql.endpoint.url}")
-  private String graphqlUrl;
+  /**
+   * Selects endpoint and token of every request (see {@link GitlabEndpointProperties}).
+   */
+  @Bean
+  public GitlabClientPool gitlabClientPool(GitlabEndpointProperties endpointProperties, MeterRegistry meterRegistry) {
+    return new GitlabClientPool(resolveTargets(endpointProperties), endpointProperties.getReadAfterWriteWindow(),
+      meterRegistry);
+  }
 
-  @Value(value = "${graphql.endpoint.token:}")
-  private String graphqlToken;
+  /**
+   * @return the configured targets (the url defaults to the endpoint url, the name to "target-&lt;index&gt;"), or a single
+   * target of endpoint url and token
+   */
+  static List<Target> resolveTargets(GitlabEndpointProperties endpointProperties) {
+    List<Target> targets = endpointProperties.getTargets();
+    if (targets.isEmpty()) {
+      Target target = new Target();
+      target.setToken(endpointProperties.getToken());
+      targets = List.of(target);
+    }
+
+    // note: copies, the bound properties stay as configured
+    List<Target> resolved = new ArrayList<>();
+    for (int index = 0; index < targets.size(); index++) {
+      Target target = targets.get(index);
+      Target resolvedTarget = new Target();
+      resolvedTarget.setName(isBlank(target.getName()) ? "target-" + index : target.getName());
+      resolvedTarget.setUrl(isBlank(target.getUrl()) ? endpointProperties.getUrl() : target.getUrl());
+      resolvedTarget.setToken(target.getToken());
+      resolvedTarget.setWeight(target.getWeight());
+      resolvedTarget.setUsage(target.getUsage());
+      resolved.add(resolvedTarget);
+    }
+    return resolved;
+  }
 
   /**
    * The Spring reactive {@link WebClient} that will execute the HTTP requests for GraphQL queries and mutations.<BR/>
+   * The phases of every call are recorded as JFR events (see {@link GitlabCallTraceFilter}), the target of every call is
+   * chosen by the {@link GitlabClientPool}.
    */
   @Bean
   @Primary
-  public WebClient webClient() {
+  public WebClient webClient(GitlabEndpointProperties endpointProperties, GitlabClientPool gitlabClientPool) {
     return WebClient.builder()
-             .baseUrl(graphqlUrl)
+             .baseUrl(endpointProperties.getUrl())
              .defaultHeader("Content-Type", "application/json")
-             .defaultHeader("Authorization", "Bearer " + graphqlToken)
-             .defaultUriVariables(Collections.singletonMap("url", graphqlUrl))
+             .defaultUriVariables(Collections.singletonMap("url", endpointProperties.getUrl()))
+             .filter(new GitlabCallTraceFilter())
+             .filter(gitlabClientPool)
              .build();
   }
 }
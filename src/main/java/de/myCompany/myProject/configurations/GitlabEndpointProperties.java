@@ -0,0 +1,131 @@
+package de.myCompany.myProject.configurations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Gitlab GraphQL endpoint(s), e.g.
+ * <pre>
+ * graphql.endpoint.url=https://mygit.myCompany.de/api/graphql
+ * graphql.endpoint.targets[0].token=first token
+ * graphql.endpoint.targets[1].token=second token
+ * graphql.endpoint.targets[2].url=https://replica.mygit.myCompany.de/api/graphql
+ * graphql.endpoint.targets[2].token=third token
+ * graphql.endpoint.targets[2].usage=READ
+ * graphql.endpoint.targets[2].weight=2
+ * graphql.endpoint.read-after-write-window=30s
+ * </pre>
+ * Without targets, the single {@code url} and {@code token} are used for all requests; a target without url uses
+ * {@code url} (the defaults are resolved by {@link GitlabConfig}).<BR/>
+ * Queries of a project we wrote to within the {@code read-after-write-window} are sent to WRITE targets, so they see
+ * our own changes even if a READ replica lags behind.
+ */
+@ConfigurationProperties(prefix = "graphql.endpoint")
+public class GitlabEndpointProperties {
+
+  private String url;
+
+  private String token = "";
+
+  private List<Target> targets = new ArrayList<>();
+
+  private Duration readAfterWriteWindow = Duration.ofSeconds(30);
+
+  public String getUrl() {
+    return url;
+  }
+
+  public void setUrl(String url) {
+    this.url = url;
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  public void setToken(String token) {
+    this.token = token;
+  }
+
+  public List<Target> getTargets() {
+    return targets;
+  }
+
+  public void setTargets(List<Target> targets) {
+    this.targets = targets;
+  }
+
+  public Duration getReadAfterWriteWindow() {
+    return readAfterWriteWindow;
+  }
+
+  public void setReadAfterWriteWindow(Duration readAfterWriteWindow) {
+    this.readAfterWriteWindow = readAfterWriteWindow;
+  }
+
+  public enum Usage {
+    READ,
+    WRITE,
+    READ_WRITE;
+
+    public boolean accepts(boolean write) {
+      return this == READ_WRITE || (write ? this == WRITE : this == READ);
+    }
+  }
+
+  public static class Target {
+
+    // note: used for metrics and logs (instead of the token)
+    private String name;
+
+    private String url;
+
+    private String token = "";
+
+    private int weight = 1;
+
+    private Usage usage = Usage.READ_WRITE;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public String getUrl() {
+      return url;
+    }
+
+    public void setUrl(String url) {
+      this.url = url;
+    }
+
+    public String getToken() {
+      return token;
+    }
+
+    public void setToken(String token) {
+      this.token = token;
+    }
+
+    public int getWeight() {
+      return weight;
+    }
+
+    public void setWeight(int weight) {
+      this.weight = weight;
+    }
+
+    public Usage getUsage() {
+      return usage;
+    }
+
+    public void setUsage(Usage usage) {
+      this.usage = usage;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package de.myCompany.myProject.configurations;
+
+/**
+ * What the Gitlab call running on the current thread does, the {@link GitlabClientPool} chooses the target by it.<BR/>
+ * The generated executors build the requests themselves, so the caller binds the context to its thread from
+ * {@link #query(String)} or {@link #mutation(String)} until {@link #close()}; the WebClient subscribes the request on
+ * that thread.
+ */
+public final class GitlabRoutingContext implements AutoCloseable {
+
+  private static final ThreadLocal<GitlabRoutingContext> CURRENT = new ThreadLocal<>();
+
+  private final boolean write;
+
+  private final String projectPath;
+
+  private final GitlabRoutingContext previous = CURRENT.get();
+
+  private GitlabRoutingContext(boolean write, String projectPath) {
+    this.write = write;
+    this.projectPath = projectPath;
+    CURRENT.set(this);
+  }
+
+  /**
+   * @param projectPath project the query reads, NULL if not scoped to a project
+   */
+  public static GitlabRoutingContext query(String projectPath) {
+    return new GitlabRoutingContext(false, projectPath);
+  }
+
+  /**
+   * @param projectPath project the mutation writes, NULL if not scoped to a project
+   */
+  public static GitlabRoutingContext mutation(String projectPath) {
+    return new GitlabRoutingContext(true, projectPath);
+  }
+
+  /**
+   * @return context of the call running on the current thread, or NULL
+   */
+  static GitlabRoutingContext current() {
+    return CURRENT.get();
+  }
+
+  boolean isWrite() {
+    return write;
+  }
+
+  String getProjectPath() {
+    return projectPath;
+  }
+
+  @Override
+  public void close() {
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+}
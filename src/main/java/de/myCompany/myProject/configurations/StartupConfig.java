@@ -0,0 +1,102 @@
+package de.myCompany.myProject.configurations;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import springfox.documentation.spring.web.plugins.DocumentationPluginsBootstrapper;
+
+@Configuration
+public class StartupConfig {
+
+  private static final String LAZY_PACKAGES = "startup.lazy-initialization.packages";
+
+  private static final String LAZY_BEAN_NAMES = "startup.lazy-initialization.bean-names";
+
+  private static final String SPRINGFOX_AUTO_STARTUP = "springfox.documentation.auto-startup";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StartupConfig.class);
+
+  /**
+   * Defers the expensive beans that are not needed to serve the first requests (GraphQL executors, see
+   * {@code startup.lazy-initialization.packages} and {@code startup.lazy-initialization.bean-names}) until they are used
+   * for the first time.<BR/>
+   * Opt-in by {@code startup.lazy-initialization.enabled=true}, unlike {@code spring.main.lazy-initialization} all other
+   * beans are still created (and validated) at startup. The scan of the Swagger documentation (Dockets) is moved behind
+   * the startup as well, see {@link #deferredDocumentation(ObjectProvider)}.<BR/>
+   * note: only beans nobody injects eagerly are deferred, check the actuator endpoint 'startup' before adding beans.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "startup.lazy-initialization.enabled", havingValue = "true")
+  public static BeanFactoryPostProcessor lazyInitializationPostProcessor(Environment environment) {
+    if (environment instanceof ConfigurableEnvironment configurableEnvironment) {
+      // note: lowest precedence, an explicitly configured 'springfox.documentation.auto-startup' wins
+      configurableEnvironment.getPropertySources()
+        .addLast(new MapPropertySource("startup.lazy-initialization", Map.of(SPRINGFOX_AUTO_STARTUP, "false")));
+    }
+
+    Set<String> packages = Set.copyOf(Arrays.asList(environment.getProperty(LAZY_PACKAGES, String[].class, new String[0])));
+    Set<String> beanNames = Set.copyOf(Arrays.asList(environment.getProperty(LAZY_BEAN_NAMES, String[].class, new String[0])));
+
+    return beanFactory -> Stream.of(beanFactory.getBeanDefinitionNames())
+                            .filter(beanName -> beanNames.contains(beanName)
+                                                  || isInPackage(beanFactory.getBeanDefinition(beanName), packages))
+                            .forEach(beanName -> beanFactory.getBeanDefinition(beanName).setLazyInit(true));
+  }
+
+  /**
+   * springfox scans all Dockets while the context is refreshed, unless {@code springfox.documentation.auto-startup=false}
+   * (set in the opt-in mode). The scan is then started when the application is ready (already serving requests), so
+   * the Swagger documentation is available shortly after the startup.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "startup.lazy-initialization.enabled", havingValue = "true")
+  public ApplicationListener<ApplicationReadyEvent> deferredDocumentation(ObjectProvider<DocumentationPluginsBootstrapper> bootstrappers) {
+    return event -> bootstrappers.forEach(bootstrapper -> {
+      if (bootstrapper.isRunning()) {
+        return;
+      }
+      try {
+        bootstrapper.start();
+      } catch (RuntimeException cause) {
+        // note: the application works without the Swagger documentation
+        LOGGER.warn("Swagger documentation could not be created", cause);
+      }
+    });
+  }
+
+  /**
+   * Training run for the AppCDS archive (see Gradle task 'appCdsArchive'): the application exits as soon as it is started.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "startup.training-run", havingValue = "true")
+  public ApplicationListener<ApplicationReadyEvent> trainingRunExit() {
+    return event -> System.exit(SpringApplication.exit(event.getApplicationContext()));
+  }
+
+  private static boolean isInPackage(BeanDefinition beanDefinition, Set<String> packages) {
+    String className = beanDefinition.getBeanClassName();
+    if (className == null && beanDefinition instanceof AnnotatedBeanDefinition annotatedBeanDefinition
+          && annotatedBeanDefinition.getFactoryMethodMetadata() != null) {
+      className = annotatedBeanDefinition.getFactoryMethodMetadata().getDeclaringClassName();
+    }
+    String beanClassName = className;
+
+    return beanClassName != null && packages.stream().anyMatch(name -> beanClassName.startsWith(name + "."));
+  }
+}
@@ -0,0 +1,129 @@
+package de.myCompany.myProject.configurations;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.cache.ICache;
+import org.thymeleaf.cache.TemplateCacheKey;
+import org.thymeleaf.context.EngineContext;
+import org.thymeleaf.engine.TemplateData;
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.exceptions.TemplateEngineException;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.templateresolver.TemplateResolution;
+
+/**
+ * Parses all templates once at startup, so the first request of each page is served from the template cache.<BR/>
+ * Templates are only parsed (not processed), so no expression is evaluated at startup. Does nothing if templates are not
+ * cacheable (hot reload, see {@link WebMvcConfig#templateResolver()}).
+ */
+@Component
+public class TemplateWarmUp {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TemplateWarmUp.class);
+
+    // note: the static frontend is served by the resource handler (see WebMvcConfig), its HTML is no template
+    private static final String EXCLUDED_PREFIX = "tile-management/";
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final ClassLoaderTemplateResolver templateResolver;
+
+    private final MeterRegistry meterRegistry;
+
+    public TemplateWarmUp(SpringTemplateEngine templateEngine, ClassLoaderTemplateResolver templateResolver, MeterRegistry meterRegistry) {
+        this.templateEngine = templateEngine;
+        this.templateResolver = templateResolver;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+
+        if (!templateResolver.isCacheable()) {
+            return;
+        }
+
+        List<String> templateNames = findTemplateNames();
+
+        Timer.builder("thymeleaf.warmup")
+             .description("Time to parse all templates at startup")
+             .register(meterRegistry)
+             .record(() -> templateNames.forEach(this::warmUp));
+
+        LOGGER.info("Warmed up {} Thymeleaf templates", templateNames.size());
+    }
+
+    private void warmUp(String templateName) {
+
+        IEngineConfiguration configuration = templateEngine.getConfiguration();
+        ICache<TemplateCacheKey, TemplateModel> templateCache = configuration.getCacheManager().getTemplateCache();
+
+        try {
+            TemplateResolution resolution = templateResolver.resolveTemplate(configuration, null, templateName, null);
+            if (templateCache == null || resolution == null) {
+                return;
+            }
+
+            TemplateData templateData = new TemplateData(templateName, null, resolution.getTemplateResource(),
+                                                         resolution.getTemplateMode(), resolution.getValidity());
+            TemplateModel templateModel = configuration.getTemplateManager().parseStandalone(
+                new EngineContext(configuration, templateData, null, Locale.getDefault(), Map.of()),
+                templateName, null, null, false, true);
+
+            // note: parseStandalone caches by owner template, a render (see TemplateEngine#process) looks up the
+            // template without owner, selectors, template mode and resolution attributes
+            templateCache.put(new TemplateCacheKey(null, templateName, null, 0, 0, null, null), templateModel);
+        } catch (TemplateEngineException cause) {
+            LOGGER.warn("Template '{}' could not be parsed", templateName, cause);
+        }
+    }
+
+    private List<String> findTemplateNames() {
+        String prefix = templateResolver.getPrefix();
+        String suffix = templateResolver.getSuffix();
+
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver(getClass().getClassLoader())
+                                     .getResources("classpath*:" + prefix + "**/*" + suffix);
+
+            return Arrays.stream(resources)
+                         .map(resource -> toTemplateName(resource, prefix, suffix))
+                         .filter(Objects::nonNull)
+                         .filter(templateName -> !templateName.startsWith(EXCLUDED_PREFIX))
+                         .distinct()
+                         .toList();
+        } catch (IOException cause) {
+            throw new UncheckedIOException("Templates could not be listed!", cause);
+        }
+    }
+
+    private static String toTemplateName(Resource resource, String prefix, String suffix) {
+        try {
+            String url = resource.getURL().toString();
+            // note: nested jars (Spring Boot) contain several '!/', the template path follows the last one
+            String path = url.substring(url.lastIndexOf('!') + 1);
+            int start = path.indexOf("/" + prefix);
+
+            return start < 0 ? null : path.substring(start + prefix.length() + 1, path.length() - suffix.length());
+        } catch (IOException cause) {
+            LOGGER.debug("Template '{}' skipped", resource, cause);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package de.myCompany.myProject.configurations;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.thymeleaf.spring5.view.ThymeleafView;
+
+/**
+ * {@link ThymeleafView} that records the render time of every template as {@value #METRIC_NAME}.
+ */
+public class TimedThymeleafView extends ThymeleafView {
+
+    public static final String METRIC_NAME = "thymeleaf.render";
+
+    @Override
+    public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws Exception {
+
+        MeterRegistry meterRegistry = obtainApplicationContext().getBeanProvider(MeterRegistry.class).getIfAvailable();
+        if (meterRegistry == null) {
+            super.render(model, request, response);
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            super.render(model, request, response);
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                               .description("Time to render a Thymeleaf template")
+                               .tag("template", getTemplateName())
+                               .tag("outcome", outcome)
+                               .register(meterRegistry));
+        }
+    }
+}
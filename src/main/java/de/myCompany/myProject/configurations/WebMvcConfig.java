@@ -1,33 +1,88 @@
 package de.myCompany.myProject.configurations;
 
 import com.github.heneke.thymeleaf.togglz.TogglzDialect;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Description;
-import org.springframework.http.CacheControl;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.thymeleaf.cache.StandardCacheManager;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 import org.thymeleaf.spring5.view.ThymeleafViewResolver;
 import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 
-import java.util.concurrent.TimeUnit;
-
 @Configuration
 @AutoConfigureAfter(DispatcherServletAutoConfiguration.class)
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    private static final String TILE_MANAGEMENT_PATH = "/tile-management/";
+
+    private static final String TILE_MANAGEMENT_PATTERN = TILE_MANAGEMENT_PATH + "**";
+
+    private static final String TILE_MANAGEMENT_RESOURCES = "public/tile-management/";
+
+    private static final String TILE_MANAGEMENT_LOCATION = "classpath:/" + TILE_MANAGEMENT_RESOURCES;
+
+    private final Environment environment;
+
+    @Value(value = "${thymeleaf.cache.ttl:1h}")
+    private Duration templateCacheTtl;
+
+    @Value(value = "${thymeleaf.cache.maximum-size:200}")
+    private int templateCacheMaximumSize;
+
+    public WebMvcConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Serves the tile-management frontend. The build adds content hashed copies of its assets ("app.&lt;hash&gt;.js")
+     * and links them from the html pages, so these assets can be cached forever by the browser. Precompressed variants
+     * (".br", ".gz") generated by the build are preferred if the client accepts them.
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+
+        // note: Cache-Control is set by the ContentHashedResourceCacheControlInterceptor
+        registry.addResourceHandler(TILE_MANAGEMENT_PATTERN)
+                .addResourceLocations(TILE_MANAGEMENT_LOCATION)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+    }
+
+    /**
+     * Content hashed assets are immutable, the html pages are revalidated on every request.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+
+        registry.addInterceptor(new ContentHashedResourceCacheControlInterceptor(TILE_MANAGEMENT_PATH, new ClassPathResource(TILE_MANAGEMENT_RESOURCES)))
+                .addPathPatterns(TILE_MANAGEMENT_PATTERN);
+    }
+
+    /**
+     * Parsed templates are cached (bounded by {@code thymeleaf.cache.ttl}), only the {@link SpringProfiles#LOCAL}
+     * profile re-reads them on every render to support hot reload.
+     */
     @Bean
     public ClassLoaderTemplateResolver templateResolver() {
 
         ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
 
         templateResolver.setPrefix("public/");
-        templateResolver.setCacheable(false);
+        templateResolver.setCacheable(!environment.acceptsProfiles(Profiles.of(SpringProfiles.LOCAL)));
+        templateResolver.setCacheTTLMs(templateCacheTtl.toMillis());
         templateResolver.setSuffix(".html");
         templateResolver.setTemplateMode("HTML");
         templateResolver.setCharacterEncoding("UTF-8");
@@ -38,8 +93,12 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Bean
     public SpringTemplateEngine templateEngine() {
 
+        StandardCacheManager cacheManager = new StandardCacheManager();
+        cacheManager.setTemplateCacheMaxSize(templateCacheMaximumSize);
+
         SpringTemplateEngine templateEngine = new SpringTemplateEngine();
         templateEngine.setTemplateResolver(templateResolver());
+        templateEngine.setCacheManager(cacheManager);
         templateEngine.addDialect(new TogglzDialect());
 
         return templateEngine;
@@ -52,6 +111,7 @@ public class WebMvcConfig implements WebMvcConfigurer {
         ThymeleafViewResolver viewResolver = new ThymeleafViewResolver();
 
         viewResolver.setTemplateEngine(templateEngine());
+        viewResolver.setViewClass(TimedThymeleafView.class);
         viewResolver.setCharacterEncoding("UTF-8");
 
         return viewResolver;
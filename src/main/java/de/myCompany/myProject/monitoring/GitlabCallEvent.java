@@ -0,0 +1,34 @@
+package de.myCompany.myProject.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("de.myCompany.myProject.GitlabCall")
+@Label("Gitlab Call")
+@Description("Gitlab GraphQL call, from preparing the request until the response is deserialized")
+@Category({"Application", "Gitlab"})
+@StackTrace(false)
+public class GitlabCallEvent extends Event {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Operation Type")
+  String operationType;
+
+  @Label("Request Size")
+  @DataAmount
+  long requestSize;
+
+  @Label("Response Size")
+  @DataAmount
+  long responseSize;
+
+  @Label("Successful")
+  boolean successful;
+}
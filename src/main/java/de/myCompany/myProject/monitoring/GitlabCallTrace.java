@@ -0,0 +1,131 @@
+package de.myCompany.myProject.monitoring;
+
+import java.util.function.Supplier;
+
+/**
+ * Records the phases of a Gitlab GraphQL call as JFR events ({@link GitlabPhaseEvent}, {@link GitlabCallEvent}).<BR/>
+ * The trace is bound to the calling thread from {@link #start(String, String)} until {@link #close()}, the
+ * later phases are entered by the {@link GitlabCallTraceFilter} of the WebClient (possibly on other threads). Phases
+ * only move forward, every phase ends when the next one begins.
+ */
+public final class GitlabCallTrace implements AutoCloseable {
+
+  private static final ThreadLocal<GitlabCallTrace> CURRENT = new ThreadLocal<>();
+
+  public enum Phase {
+    PREPARATION(GitlabPreparationEvent::new),
+    CONNECTION(GitlabConnectionEvent::new),
+    SERIALIZATION(GitlabSerializationEvent::new),
+    NETWORK(GitlabNetworkEvent::new),
+    DESERIALIZATION(GitlabDeserializationEvent::new);
+
+    private final Supplier<GitlabPhaseEvent> eventFactory;
+
+    Phase(Supplier<GitlabPhaseEvent> eventFactory) {
+      this.eventFactory = eventFactory;
+    }
+  }
+
+  private final String operation;
+
+  private final String operationType;
+
+  private final Thread callerThread = Thread.currentThread();
+
+  private final GitlabCallEvent callEvent = new GitlabCallEvent();
+
+  // note: guarded by this, phases are entered by different threads
+  private Phase phase;
+
+  private GitlabPhaseEvent phaseEvent;
+
+  private long requestSize;
+
+  private long responseSize;
+
+  private boolean successful;
+
+  private boolean closed;
+
+  private GitlabCallTrace(String operation, String operationType) {
+    this.operation = operation;
+    this.operationType = operationType;
+    callEvent.begin();
+    enter(Phase.PREPARATION);
+  }
+
+  public static GitlabCallTrace start(String operation, String operationType) {
+    GitlabCallTrace trace = new GitlabCallTrace(operation, operationType);
+    CURRENT.set(trace);
+    return trace;
+  }
+
+  /**
+   * @return trace of the call running on the current thread, or NULL
+   */
+  public static GitlabCallTrace current() {
+    return CURRENT.get();
+  }
+
+  public synchronized void enter(Phase next) {
+    if (closed || (phase != null && phase.compareTo(next) >= 0)) {
+      return;
+    }
+
+    commitPhase();
+    phase = next;
+    phaseEvent = next.eventFactory.get();
+    phaseEvent.begin();
+  }
+
+  public synchronized void addRequestSize(long bytes) {
+    requestSize += bytes;
+  }
+
+  public synchronized void addResponseSize(long bytes) {
+    responseSize += bytes;
+  }
+
+  public <T> T succeeded(T response) {
+    synchronized (this) {
+      successful = true;
+    }
+    return response;
+  }
+
+  @Override
+  public synchronized void close() {
+    CURRENT.remove();
+    commitPhase();
+    closed = true;
+
+    if (callEvent.shouldCommit()) {
+      callEvent.operation = operation;
+      callEvent.operationType = operationType;
+      callEvent.requestSize = requestSize;
+      callEvent.responseSize = responseSize;
+      callEvent.successful = successful;
+      callEvent.commit();
+    }
+  }
+
+  private void commitPhase() {
+    if (phaseEvent == null) {
+      return;
+    }
+
+    phaseEvent.end();
+    if (phaseEvent.shouldCommit()) {
+      phaseEvent.operation = operation;
+      phaseEvent.operationType = operationType;
+      phaseEvent.callerThread = callerThread;
+      phaseEvent.payloadSize = switch (phase) {
+        case SERIALIZATION -> requestSize;
+        case NETWORK, DESERIALIZATION -> responseSize;
+        default -> 0;
+      };
+      phaseEvent.commit();
+    }
+    phaseEvent = null;
+  }
+}
@@ -0,0 +1,56 @@
+package de.myCompany.myProject.monitoring;
+
+import de.myCompany.myProject.monitoring.GitlabCallTrace.Phase;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Enters the phases of the {@link GitlabCallTrace} of the calling thread while the WebClient executes the request:
+ * <ul>
+ *   <li>CONNECTION when the exchange starts</li>
+ *   <li>SERIALIZATION as soon as a connection is acquired (the request body is written afterwards)</li>
+ *   <li>NETWORK when the serialized body is handed to the connection</li>
+ *   <li>DESERIALIZATION when the last byte of the response body is received</li>
+ * </ul>
+ * Note: the exchange is subscribed by the calling thread, which is blocked until the response is deserialized.
+ */
+public class GitlabCallTraceFilter implements ExchangeFilterFunction {
+
+  @Override
+  public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+    GitlabCallTrace trace = GitlabCallTrace.current();
+    if (trace == null) {
+      return next.exchange(request);
+    }
+
+    trace.enter(Phase.CONNECTION);
+
+    ClientRequest tracedRequest = ClientRequest.from(request)
+                                    .httpRequest(httpRequest -> trace.enter(Phase.SERIALIZATION))
+                                    .body((outputMessage, context) -> request.body().insert(
+                                      new ClientHttpRequestDecorator(outputMessage) {
+                                        @Override
+                                        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                                          return super.writeWith(Flux.from(body).doOnNext(buffer -> {
+                                            trace.addRequestSize(buffer.readableByteCount());
+                                            trace.enter(Phase.NETWORK);
+                                          }));
+                                        }
+                                      }, context))
+                                    .build();
+
+    return next.exchange(tracedRequest)
+             .map(response -> response.mutate()
+                                .body(body -> body
+                                                .doOnNext(buffer -> trace.addResponseSize(buffer.readableByteCount()))
+                                                .doOnComplete(() -> trace.enter(Phase.DESERIALIZATION)))
+                                .build());
+  }
+}
@@ -0,0 +1,11 @@
+package de.myCompany.myProject.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("de.myCompany.myProject.GitlabConnection")
+@Label("Gitlab Connection")
+@Description("Acquisition of an HTTP connection")
+public class GitlabConnectionEvent extends GitlabPhaseEvent {
+}
@@ -0,0 +1,11 @@
+package de.myCompany.myProject.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("de.myCompany.myProject.GitlabDeserialization")
+@Label("Gitlab Deserialization")
+@Description("Deserialization of the JSON response into the generated Query/Mutation classes")
+public class GitlabDeserializationEvent extends GitlabPhaseEvent {
+}
@@ -0,0 +1,91 @@
+package de.myCompany.myProject.monitoring;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarizes the Gitlab events of a JFR recording into percentiles per operation and phase.<BR/>
+ * Usage: {@code ./gradlew gitlabJfrSummary -PjfrFile=recording.jfr}
+ */
+public final class GitlabJfrSummary {
+
+  private static final String EVENT_PREFIX = "de.myCompany.myProject.Gitlab";
+
+  private static final String LINE_FORMAT = "%-40s %-16s %8s %10s %10s %10s %10s %12s%n";
+
+  private GitlabJfrSummary() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("Usage: GitlabJfrSummary <recording.jfr>");
+      System.exit(1);
+    }
+
+    summarize(Path.of(args[0]), System.out);
+  }
+
+  public static void summarize(Path recording, PrintStream out) throws IOException {
+    // operation -> phase -> samples
+    Map<String, Map<String, Samples>> samplesByOperation = new TreeMap<>();
+
+    for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+      String eventName = event.getEventType().getName();
+      if (!eventName.startsWith(EVENT_PREFIX)) {
+        continue;
+      }
+
+      String phase = eventName.substring(EVENT_PREFIX.length());
+      long payloadSize = event.hasField("payloadSize") ? event.getLong("payloadSize") : event.getLong("requestSize");
+      samplesByOperation
+        .computeIfAbsent(event.getString("operation"), ignored -> new TreeMap<>())
+        .computeIfAbsent(phase, ignored -> new Samples())
+        .add(event.getDuration().toNanos(), payloadSize);
+    }
+
+    out.printf(LINE_FORMAT, "OPERATION", "PHASE", "COUNT", "P50 (ms)", "P90 (ms)", "P99 (ms)", "MAX (ms)", "AVG BYTES");
+    samplesByOperation.forEach((operation, samplesByPhase) ->
+      samplesByPhase.forEach((phase, samples) ->
+        out.printf(LINE_FORMAT, operation, phase, samples.count(),
+          samples.percentile(50), samples.percentile(90), samples.percentile(99), samples.percentile(100),
+          samples.averagePayloadSize())));
+  }
+
+  private static class Samples {
+    private final List<Long> durations = new ArrayList<>();
+
+    private long payloadSize;
+
+    private boolean sorted;
+
+    void add(long durationNanos, long payloadSize) {
+      durations.add(durationNanos);
+      this.payloadSize += payloadSize;
+      sorted = false;
+    }
+
+    int count() {
+      return durations.size();
+    }
+
+    String percentile(int percentile) {
+      if (!sorted) {
+        durations.sort(null);
+        sorted = true;
+      }
+      int index = (int) Math.ceil(percentile / 100.0 * durations.size()) - 1;
+      return String.format("%.2f", durations.get(Math.max(index, 0)) / 1_000_000.0);
+    }
+
+    long averagePayloadSize() {
+      return payloadSize / durations.size();
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package de.myCompany.myProject.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("de.myCompany.myProject.GitlabNetwork")
+@Label("Gitlab Network")
+@Description("Transfer of the request and response, including the time Gitlab needs to respond")
+public class GitlabNetworkEvent extends GitlabPhaseEvent {
+}
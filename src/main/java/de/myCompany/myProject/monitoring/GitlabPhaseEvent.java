@@ -0,0 +1,30 @@
+package de.myCompany.myProject.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the JFR events of the phases of a Gitlab GraphQL call (see {@link GitlabCallTrace}).
+ */
+@Category({"Application", "Gitlab"})
+@StackTrace(false)
+public abstract class GitlabPhaseEvent extends Event {
+
+  // note: fields must not be private, JFR ignores private fields of super classes
+
+  @Label("Operation")
+  protected String operation;
+
+  @Label("Operation Type")
+  protected String operationType;
+
+  @Label("Caller Thread")
+  protected Thread callerThread;
+
+  @Label("Payload Size")
+  @DataAmount
+  protected long payloadSize;
+}
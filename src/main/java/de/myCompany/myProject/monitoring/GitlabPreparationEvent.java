@@ -0,0 +1,11 @@
+package de.myCompany.myProject.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("de.myCompany.myProject.GitlabPreparation")
+@Label("Gitlab Preparation")
+@Description("Preparation of the GraphQL request (parsing the query, binding the parameters)")
+public class GitlabPreparationEvent extends GitlabPhaseEvent {
+}
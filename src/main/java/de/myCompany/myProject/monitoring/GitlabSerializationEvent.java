@@ -0,0 +1,11 @@
+package de.myCompany.myProject.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("de.myCompany.myProject.GitlabSerialization")
+@Label("Gitlab Serialization")
+@Description("Serialization of the GraphQL request to JSON")
+public class GitlabSerializationEvent extends GitlabPhaseEvent {
+}
@@ -0,0 +1,72 @@
+package de.myCompany.myProject.services;
+
+import de.myCompany.myProject.services.GitlabService.CommitFile;
+import de.myCompany.myProject.services.GitlabService.GitlabResult;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static de.myCompany.myProject.services.GitlabService.ERROR_EMPTY_PARAMETER;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Write operation of {@link GitlabService}, queued by the {@link GitlabOutbox} (and stored as JSON in its journal).
+ */
+record GitlabOperation(
+  Type type,
+  String projectPath,
+  String branchName,
+  String baseBranch,
+  String fileName,
+  String fileContent,
+  boolean mustBeCreated,
+  String createMessage,
+  String updateMessage,
+  String title) {
+
+  enum Type {
+    CREATE_BRANCH,
+    COMMIT,
+    CREATE_MERGE_REQUEST
+  }
+
+  GitlabOperation {
+    checkArgument(type != null, ERROR_EMPTY_PARAMETER, "type");
+    checkArgument(isNotBlank(projectPath), ERROR_EMPTY_PARAMETER, "projectPath");
+    checkArgument(isNotBlank(branchName), ERROR_EMPTY_PARAMETER, "branchName");
+  }
+
+  static GitlabOperation createBranch(String projectPath, String baseBranch, String branchName) {
+    checkArgument(isNotBlank(baseBranch), ERROR_EMPTY_PARAMETER, "baseBranch");
+
+    return new GitlabOperation(Type.CREATE_BRANCH, projectPath, branchName, baseBranch, null, null, false, null, null, null);
+  }
+
+  static GitlabOperation commit(String projectPath, String branchName, String fileName, String fileContent, boolean mustBeCreated, String createMessage, String updateMessage) {
+    checkArgument(isNotBlank(fileName), ERROR_EMPTY_PARAMETER, "fileName");
+    checkArgument(isNotBlank(fileContent), ERROR_EMPTY_PARAMETER, "fileContent");
+    checkArgument(isNotBlank(createMessage), ERROR_EMPTY_PARAMETER, "createMessage");
+    checkArgument(isNotBlank(updateMessage), ERROR_EMPTY_PARAMETER, "updateMessage");
+
+    return new GitlabOperation(Type.COMMIT, projectPath, branchName, null, fileName, fileContent, mustBeCreated, createMessage, updateMessage, null);
+  }
+
+  static GitlabOperation createMergeRequest(String projectPath, String sourceBranch, String baseBranch, String commitMessage) {
+    checkArgument(isNotBlank(baseBranch), ERROR_EMPTY_PARAMETER, "baseBranch");
+    checkArgument(isNotBlank(commitMessage), ERROR_EMPTY_PARAMETER, "commitMessage");
+
+    return new GitlabOperation(Type.CREATE_MERGE_REQUEST, projectPath, sourceBranch, baseBranch, null, null, false, null, null, commitMessage);
+  }
+
+  CommitFile toCommitFile() {
+    checkArgument(type == Type.COMMIT, "Operation %s is not a commit!", type);
+
+    return new CommitFile(fileName, fileContent, mustBeCreated, createMessage);
+  }
+
+  GitlabResult execute(GitlabService gitlabService) {
+    return switch (type) {
+      case CREATE_BRANCH -> gitlabService.createBranch(projectPath, baseBranch, branchName);
+      case COMMIT -> gitlabService.commit(projectPath, branchName, fileName, fileContent, mustBeCreated, createMessage, updateMessage);
+      case CREATE_MERGE_REQUEST -> gitlabService.createMergeRequest(projectPath, branchName, baseBranch, title);
+    };
+  }
+}
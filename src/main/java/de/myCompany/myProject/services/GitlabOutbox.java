@@ -0,0 +1,404 @@
+package de.myCompany.myProject.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.myCompany.myProject.services.GitlabOperation.Type;
+import de.myCompany.myProject.services.GitlabOutboxJournal.Entry;
+import de.myCompany.myProject.services.GitlabService.CommitFile;
+import de.myCompany.myProject.services.GitlabService.GitlabResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Decouples callers from Gitlab: write operations are stored in a durable journal ({@link GitlabOutboxJournal}) and
+ * executed asynchronously by a pool of workers.<BR/>
+ * Operations are sharded by project and branch ({@link KeyedLaneExecutor}): operations of the same branch are executed
+ * in the order they were enqueued (consecutive commits are merged into one commit, which avoids conflicts on the branch
+ * head), different branches and projects in parallel. An operation that reads another branch (base of a new branch,
+ * target of a merge request) waits until all former operations of that branch are done, and vice versa.<BR/>
+ * Operations that failed because Gitlab was not available ({@link GitlabUnavailableException}) are retried with
+ * exponential backoff, all other failures are final; pending operations survive a restart.
+ */
+@Service
+@SuppressWarnings("unused")
+class GitlabOutbox {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GitlabOutbox.class);
+
+  private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+  private final GitlabService gitlabService;
+
+  private final ObjectMapper objectMapper;
+
+  private final GitlabOutboxJournal journal;
+
+  private final ThreadPoolTaskExecutor workerPool;
+
+  private final KeyedLaneExecutor<PendingOperation> lanes;
+
+  private final int batchSize;
+
+  private final int maxAttempts;
+
+  private final Duration initialBackoff;
+
+  private volatile boolean closed;
+
+  // note: guarded by itself, in order of enqueuing
+  private final Map<UUID, PendingOperation> queue = new LinkedHashMap<>();
+
+  private final Cache<UUID, OutboxEntry> finished;
+
+  private final Counter succeededCounter;
+
+  private final Counter failedCounter;
+
+  private final Counter mergedCommitsCounter;
+
+  GitlabOutbox(GitlabService gitlabService,
+               ObjectMapper objectMapper,
+               MeterRegistry meterRegistry,
+               @Value("${gitlab.outbox.directory}") Path directory,
+               @Value("${gitlab.outbox.journal-size:16MB}") DataSize journalSize,
+               @Value("${gitlab.outbox.workers:4}") int workers,
+               @Value("${gitlab.outbox.batch-size:50}") int batchSize,
+               @Value("${gitlab.outbox.max-attempts:10}") int maxAttempts,
+               @Value("${gitlab.outbox.initial-backoff:1s}") Duration initialBackoff,
+               @Value("${gitlab.outbox.retention:1h}") Duration retention,
+               @Value("${gitlab.outbox.shutdown-timeout:30s}") Duration shutdownTimeout) throws IOException {
+    // note: a relative path depends on the working directory of the process (e.g. '/' as a service), the journal would
+    // not be found again after a restart
+    checkArgument(directory.isAbsolute(), "Parameter '%s' must be an absolute path: %s", "gitlab.outbox.directory", directory);
+
+    this.gitlabService = gitlabService;
+    this.objectMapper = objectMapper;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+    this.journal = new GitlabOutboxJournal(directory.resolve("outbox.journal"), Math.toIntExact(journalSize.toBytes()));
+    this.finished = Caffeine.newBuilder().expireAfterWrite(retention).build();
+
+    this.workerPool = new ThreadPoolTaskExecutor();
+    this.workerPool.setCorePoolSize(workers);
+    this.workerPool.setMaxPoolSize(workers);
+    this.workerPool.setThreadNamePrefix("gitlab-outbox-");
+    // note: running Gitlab writes are completed (and recorded in the journal) on shutdown, not interrupted
+    this.workerPool.setWaitForTasksToCompleteOnShutdown(true);
+    this.workerPool.setAwaitTerminationMillis(shutdownTimeout.toMillis());
+    this.workerPool.initialize();
+    this.lanes = new KeyedLaneExecutor<>("gitlab.outbox", workerPool, batchSize, this::executeLane, this::releaseLane, meterRegistry);
+
+    for (Entry entry : journal.pending()) {
+      GitlabOperation operation = objectMapper.readValue(entry.payload(), GitlabOperation.class);
+      queue.put(entry.id(), new PendingOperation(entry.id(), operation, Instant.ofEpochMilli(entry.timestamp())));
+    }
+    if (!queue.isEmpty()) {
+      LOGGER.info("Recovered {} pending Gitlab operations from {}", queue.size(), directory);
+    }
+
+    Gauge.builder("gitlab.outbox.depth", this, GitlabOutbox::getDepth)
+      .description("Number of pending Gitlab operations")
+      .register(meterRegistry);
+    Gauge.builder("gitlab.outbox.lag", this, outbox -> outbox.getLag().toMillis() / 1000.0)
+      .description("Age of the oldest pending Gitlab operation")
+      .baseUnit("seconds")
+      .register(meterRegistry);
+    this.succeededCounter = Counter.builder("gitlab.outbox.executed").tag("status", Status.SUCCEEDED.name()).register(meterRegistry);
+    this.failedCounter = Counter.builder("gitlab.outbox.executed").tag("status", Status.FAILED.name()).register(meterRegistry);
+    this.mergedCommitsCounter = Counter.builder("gitlab.outbox.merged-commits")
+                                  .description("Number of commits merged into a commit of several files")
+                                  .register(meterRegistry);
+  }
+
+  /**
+   * @return id to look up the state of the operation by {@link #find(UUID)}
+   */
+  public UUID enqueue(GitlabOperation operation) {
+    UUID id = UUID.randomUUID();
+    Instant now = Instant.now();
+
+    try {
+      byte[] payload = objectMapper.writeValueAsBytes(operation);
+      synchronized (queue) {
+        journal.append(new Entry(id, now.toEpochMilli(), payload));
+        queue.put(id, new PendingOperation(id, operation, now));
+      }
+    } catch (IOException cause) {
+      throw new IllegalStateException("Gitlab operation could not be queued!", cause);
+    }
+
+    return id;
+  }
+
+  public Optional<OutboxEntry> find(UUID id) {
+    synchronized (queue) {
+      PendingOperation pending = queue.get(id);
+      if (pending != null) {
+        return Optional.of(new OutboxEntry(id, pending.operation, Status.PENDING, null, pending.lastError));
+      }
+    }
+    return Optional.ofNullable(finished.getIfPresent(id));
+  }
+
+  public int getDepth() {
+    synchronized (queue) {
+      return queue.size();
+    }
+  }
+
+  public Duration getLag() {
+    synchronized (queue) {
+      return queue.values().stream()
+               .findFirst()
+               .map(pending -> Duration.between(pending.enqueuedAt, Instant.now()))
+               .orElse(Duration.ZERO);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${gitlab.outbox.poll-interval:PT1S}")
+  public void drain() {
+    if (closed) {
+      return;
+    }
+    nextBatch().forEach(pending -> lanes.submit(pending.laneKey(), pending));
+  }
+
+  /**
+   * Stops draining and waits (at most {@code gitlab.outbox.shutdown-timeout}) for the running operations, the others
+   * are executed after the restart.
+   */
+  @PreDestroy
+  public void close() throws IOException {
+    closed = true;
+    workerPool.shutdown();
+    journal.close();
+  }
+
+  private List<PendingOperation> nextBatch() {
+    Instant now = Instant.now();
+    List<PendingOperation> batch = new ArrayList<>();
+    // note: an operation must wait for all former operations of the branches it touches (in flight or to be retried)
+    Set<String> blockedLanes = new HashSet<>();
+    // note: branch -> lane executing the former operations touching it in this batch, which runs them in order
+    Map<String, String> executingLanes = new HashMap<>();
+
+    synchronized (queue) {
+      for (PendingOperation pending : queue.values()) {
+        if (batch.size() >= batchSize) {
+          break;
+        }
+
+        String laneKey = pending.laneKey();
+        List<String> touchedLanes = pending.touchedLanes();
+        boolean ready = !pending.inFlight
+                          && !pending.notBefore.isAfter(now)
+                          && touchedLanes.stream().noneMatch(blockedLanes::contains)
+                          && touchedLanes.stream().allMatch(lane -> executingLanes.getOrDefault(lane, laneKey).equals(laneKey));
+        if (!ready) {
+          blockedLanes.addAll(touchedLanes);
+          continue;
+        }
+
+        touchedLanes.forEach(lane -> executingLanes.put(lane, laneKey));
+        pending.inFlight = true;
+        batch.add(pending);
+      }
+    }
+
+    return batch;
+  }
+
+  /**
+   * Executes the operations of one lane in order, stops at the first one that has to be retried.
+   */
+  private void executeLane(String laneKey, List<PendingOperation> operations) {
+    int index = 0;
+    while (index < operations.size()) {
+      if (closed) {
+        // note: shutting down, the remaining operations are executed after the restart
+        release(operations.subList(index, operations.size()));
+        return;
+      }
+
+      List<PendingOperation> step = nextStep(operations, index);
+      try {
+        GitlabResult result = execute(step);
+        step.forEach(pending -> finish(pending, Status.SUCCEEDED, result, null));
+      } catch (GitlabUnavailableException cause) {
+        // note: all later operations of the lane have to wait
+        step.forEach(pending -> retryLater(pending, cause));
+        release(operations.subList(index + step.size(), operations.size()));
+        return;
+      } catch (RuntimeException cause) {
+        step.forEach(pending -> finish(pending, Status.FAILED, null, cause));
+      }
+      index += step.size();
+    }
+  }
+
+  private GitlabResult execute(List<PendingOperation> step) {
+    GitlabOperation first = step.get(0).operation;
+    if (step.size() == 1) {
+      return first.execute(gitlabService);
+    }
+
+    // note: a file committed several times is committed once with its latest content
+    Map<String, CommitFile> files = new LinkedHashMap<>();
+    step.stream()
+      .map(pending -> pending.operation.toCommitFile())
+      .forEach(file -> files.merge(file.fileName(), file,
+        (former, latter) -> new CommitFile(latter.fileName(), latter.fileContent(), former.mustBeCreated() || latter.mustBeCreated(), former.createMessage())));
+    String updateMessage = step.stream()
+                             .map(pending -> pending.operation.updateMessage())
+                             .distinct()
+                             .collect(joining("\n"));
+
+    mergedCommitsCounter.increment(step.size());
+    return gitlabService.commit(first.projectPath(), first.branchName(), List.copyOf(files.values()), updateMessage);
+  }
+
+  /**
+   * @return the next operation, or all consecutive commits starting at {@code from}
+   */
+  private static List<PendingOperation> nextStep(List<PendingOperation> operations, int from) {
+    int to = from + 1;
+    if (operations.get(from).operation.type() == Type.COMMIT) {
+      while (to < operations.size() && operations.get(to).operation.type() == Type.COMMIT) {
+        to++;
+      }
+    }
+    return operations.subList(from, to);
+  }
+
+  private void retryLater(PendingOperation pending, RuntimeException cause) {
+    if (pending.attempts + 1 >= maxAttempts) {
+      finish(pending, Status.FAILED, null, cause);
+      return;
+    }
+
+    synchronized (queue) {
+      pending.attempts++;
+      pending.lastError = cause.getMessage();
+      pending.notBefore = Instant.now().plus(backoff(pending.attempts));
+      pending.inFlight = false;
+    }
+    LOGGER.warn("Gitlab operation {} failed (attempt {}), retrying at {}", pending.id, pending.attempts, pending.notBefore, cause);
+  }
+
+  private void release(List<PendingOperation> operations) {
+    synchronized (queue) {
+      operations.forEach(pending -> pending.inFlight = false);
+    }
+  }
+
+  private void releaseLane(String laneKey, List<PendingOperation> operations) {
+    // note: the lane could not be started (shutdown), the operations are drained again or executed after a restart
+    release(operations);
+  }
+
+  private void finish(PendingOperation pending, Status status, GitlabResult result, RuntimeException cause) {
+    try {
+      journal.complete(pending.id);
+    } catch (IOException journalCause) {
+      // note: the operation is executed again after a restart
+      LOGGER.error("Gitlab operation {} could not be completed in journal", pending.id, journalCause);
+    }
+
+    String error = cause == null ? null : cause.getMessage();
+    finished.put(pending.id, new OutboxEntry(pending.id, pending.operation, status, result, error));
+    synchronized (queue) {
+      queue.remove(pending.id);
+    }
+
+    if (status == Status.SUCCEEDED) {
+      succeededCounter.increment();
+    } else {
+      failedCounter.increment();
+      LOGGER.error("Gitlab operation {} failed finally: {}", pending.id, pending.operation.type(), cause);
+    }
+  }
+
+  private Duration backoff(int attempts) {
+    Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 16));
+    return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+  }
+
+  enum Status {
+    PENDING,
+    SUCCEEDED,
+    FAILED
+  }
+
+  /**
+   * State of an enqueued operation; {@code result} is set if it {@link Status#SUCCEEDED} (Gitlab might still have reported
+   * errors), {@code error} if it {@link Status#FAILED} or is retried.
+   */
+  record OutboxEntry(UUID id, GitlabOperation operation, Status status, GitlabResult result, String error) {
+  }
+
+  private static class PendingOperation {
+    private final UUID id;
+
+    private final GitlabOperation operation;
+
+    private final Instant enqueuedAt;
+
+    private int attempts;
+
+    private Instant notBefore = Instant.MIN;
+
+    private boolean inFlight;
+
+    private String lastError;
+
+    PendingOperation(UUID id, GitlabOperation operation, Instant enqueuedAt) {
+      this.id = id;
+      this.operation = operation;
+      this.enqueuedAt = enqueuedAt;
+    }
+
+    String laneKey() {
+      return laneKey(operation.branchName());
+    }
+
+    /**
+     * @return the lane of the operation and the lane of the branch it reads (if any)
+     */
+    List<String> touchedLanes() {
+      return operation.baseBranch() == null
+               ? List.of(laneKey())
+               : List.of(laneKey(), laneKey(operation.baseBranch()));
+    }
+
+    private String laneKey(String branchName) {
+      return operation.projectPath() + ":" + branchName;
+    }
+  }
+}
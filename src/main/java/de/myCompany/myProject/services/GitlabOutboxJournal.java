@@ -0,0 +1,205 @@
+package de.myCompany.myProject.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only, memory-mapped journal of the {@link GitlabOutbox}.<BR/>
+ * Every record is {@code [int length][int crc32][byte type][long idMsb][long idLsb][long timestamp][payload]}; the
+ * checksum covers everything after it, so a record torn by a crash (of the JVM or the OS, which may write the pages of
+ * a record in any order) is never replayed. If the file is full, it is compacted to the pending entries (and grown if
+ * necessary).
+ */
+class GitlabOutboxJournal implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GitlabOutboxJournal.class);
+
+  private static final byte ENQUEUED = 1;
+
+  private static final byte COMPLETED = 2;
+
+  private static final int LENGTH_SIZE = Integer.BYTES;
+
+  private static final int CHECKSUM_SIZE = Integer.BYTES;
+
+  private static final int PREFIX_SIZE = LENGTH_SIZE + CHECKSUM_SIZE;
+
+  private static final int HEADER_SIZE = Byte.BYTES + 3 * Long.BYTES;
+
+  private static final byte[] NO_PAYLOAD = new byte[0];
+
+  private final Path file;
+
+  private final Map<UUID, Entry> pending = new LinkedHashMap<>();
+
+  private int capacity;
+
+  private FileChannel channel;
+
+  private MappedByteBuffer buffer;
+
+  GitlabOutboxJournal(Path file, int initialCapacity) throws IOException {
+    this.file = file;
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    this.capacity = (int) Math.max(initialCapacity, Files.exists(file) ? Files.size(file) : 0);
+
+    load();
+  }
+
+  /**
+   * @return entries appended but not completed yet (also those of former runs), in order of appending
+   */
+  synchronized List<Entry> pending() {
+    return List.copyOf(pending.values());
+  }
+
+  synchronized void append(Entry entry) throws IOException {
+    write(ENQUEUED, entry.id(), entry.timestamp(), entry.payload());
+    pending.put(entry.id(), entry);
+  }
+
+  synchronized void complete(UUID id) throws IOException {
+    if (pending.remove(id) != null) {
+      write(COMPLETED, id, System.currentTimeMillis(), NO_PAYLOAD);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (!channel.isOpen()) {
+      return;
+    }
+    buffer.force();
+    channel.close();
+  }
+
+  private void write(byte type, UUID id, long timestamp, byte[] payload) throws IOException {
+    if (!channel.isOpen()) {
+      throw new IOException("Outbox journal is closed: " + file);
+    }
+
+    int recordSize = PREFIX_SIZE + HEADER_SIZE + payload.length;
+    if (buffer.remaining() < recordSize) {
+      compact(recordSize);
+
+      // note: the compacted journal does not contain the completed entry anymore
+      if (type == COMPLETED) {
+        return;
+      }
+    }
+
+    int start = buffer.position();
+    writeRecord(buffer, type, id, timestamp, payload);
+    buffer.force(start, recordSize);
+  }
+
+  private void compact(int requiredSize) throws IOException {
+    long neededSize = requiredSize + pending.values().stream()
+                                       .mapToLong(entry -> PREFIX_SIZE + HEADER_SIZE + entry.payload().length)
+                                       .sum();
+    // note: keep at least half of the journal free, so compaction stays rare
+    while (capacity < 2 * neededSize) {
+      if (capacity > Integer.MAX_VALUE / 2) {
+        throw new IOException("Outbox journal exceeds maximum size: " + file);
+      }
+      capacity *= 2;
+    }
+
+    Path compacted = file.resolveSibling(file.getFileName() + ".compacting");
+    Files.deleteIfExists(compacted);
+    try (FileChannel target = FileChannel.open(compacted, CREATE_NEW, READ, WRITE)) {
+      MappedByteBuffer targetBuffer = target.map(READ_WRITE, 0, capacity);
+      for (Entry entry : pending.values()) {
+        writeRecord(targetBuffer, ENQUEUED, entry.id(), entry.timestamp(), entry.payload());
+      }
+      targetBuffer.force();
+    }
+
+    channel.close();
+    Files.move(compacted, file, ATOMIC_MOVE, REPLACE_EXISTING);
+    load();
+  }
+
+  private void load() throws IOException {
+    channel = FileChannel.open(file, CREATE, READ, WRITE);
+    buffer = channel.map(READ_WRITE, 0, capacity);
+    pending.clear();
+
+    while (buffer.remaining() >= PREFIX_SIZE) {
+      int start = buffer.position();
+      int length = buffer.getInt(start);
+      if (length < HEADER_SIZE || length > buffer.remaining() - PREFIX_SIZE
+            || buffer.getInt(start + LENGTH_SIZE) != checksum(buffer, start + PREFIX_SIZE, length)) {
+        // note: end of journal (or a torn record, which is overwritten by the next append)
+        break;
+      }
+
+      buffer.position(start + PREFIX_SIZE);
+      byte type = buffer.get();
+      UUID id = new UUID(buffer.getLong(), buffer.getLong());
+      long timestamp = buffer.getLong();
+      byte[] payload = new byte[length - HEADER_SIZE];
+      buffer.get(payload);
+
+      if (type == ENQUEUED) {
+        pending.put(id, new Entry(id, timestamp, payload));
+      } else {
+        pending.remove(id);
+      }
+    }
+
+    // note: the remains of a torn record must not be mistaken for a record appended later
+    boolean torn = false;
+    for (int index = buffer.position(); index < capacity; index++) {
+      if (buffer.get(index) != 0) {
+        buffer.put(index, (byte) 0);
+        torn = true;
+      }
+    }
+    if (torn) {
+      LOGGER.warn("Outbox journal {} truncated at offset {} (torn or corrupted record)", file, buffer.position());
+      buffer.force();
+    }
+  }
+
+  private static void writeRecord(MappedByteBuffer target, byte type, UUID id, long timestamp, byte[] payload) {
+    int start = target.position();
+    int length = HEADER_SIZE + payload.length;
+    target.position(start + PREFIX_SIZE);
+    target.put(type)
+      .putLong(id.getMostSignificantBits())
+      .putLong(id.getLeastSignificantBits())
+      .putLong(timestamp)
+      .put(payload);
+    target.putInt(start + LENGTH_SIZE, checksum(target, start + PREFIX_SIZE, length));
+    target.putInt(start, length);
+  }
+
+  private static int checksum(MappedByteBuffer source, int offset, int length) {
+    CRC32 crc = new CRC32();
+    crc.update(source.slice(offset, length));
+    return (int) crc.getValue();
+  }
+
+  record Entry(UUID id, long timestamp, byte[] payload) {
+  }
+}
@@ -0,0 +1,119 @@
+package de.myCompany.myProject.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import de.myCompany.myProject.gitlab.Query;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-through cache for GitLab {@link Query} responses that belong to a project.<BR/>
+ * Every operation has its own TTL ({@code graphql.cache.ttl.<OPERATION_NAME>}, falling back to
+ * {@code graphql.cache.ttl.default}); the number of entries (and of tracked projects) is bounded by
+ * {@code graphql.cache.maximum-size}.
+ * Entries of a project are dropped by {@link #invalidate(String)} whenever we write to that project.
+ */
+@Component
+class GitlabQueryCache {
+
+  private static final String TTL_PROPERTY_PREFIX = "graphql.cache.ttl.";
+
+  private final Environment environment;
+
+  private final Duration defaultTtl;
+
+  private final Map<String, Long> ttlNanosByOperation = new ConcurrentHashMap<>();
+
+  // note: a load that is still running while its project gets invalidated must not become visible afterwards,
+  // therefore every key carries the generation of its project at lookup time
+  private final Cache<String, Long> generationByProject;
+
+  // note: source of all generations; a project dropped from generationByProject (size bound) gets a new generation,
+  // which is greater than every generation it had before, so its former keys can never be hit again
+  private final AtomicLong generations = new AtomicLong();
+
+  private final Cache<Key, Query> cache;
+
+  GitlabQueryCache(Environment environment,
+                   MeterRegistry meterRegistry,
+                   @Value("${graphql.cache.maximum-size:1000}") long maximumSize,
+                   @Value("${graphql.cache.ttl.default:30s}") Duration defaultTtl) {
+    this.environment = environment;
+    this.defaultTtl = defaultTtl;
+    this.cache = Caffeine.newBuilder()
+                   .maximumSize(maximumSize)
+                   .expireAfter(new OperationExpiry())
+                   .recordStats()
+                   .build();
+    this.generationByProject = Caffeine.newBuilder()
+                                 .maximumSize(maximumSize)
+                                 .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "gitlab.query");
+  }
+
+  public Query get(String projectPath, String operation, Map<String, Object> parameters, Supplier<Query> loader) {
+    if (ttlNanos(operation) <= 0) {
+      return loader.get();
+    }
+
+    Key key = new Key(projectPath, generation(projectPath), operation, parameters);
+
+    // note: a NULL response (e.g. wrong token) is returned but never cached
+    return cache.get(key, ignored -> loader.get());
+  }
+
+  public void invalidate(String projectPath) {
+    generationByProject.put(projectPath, generations.incrementAndGet());
+    cache.asMap().keySet().removeIf(key -> key.projectPath().equals(projectPath));
+  }
+
+  public void invalidateAll() {
+    generationByProject.invalidateAll();
+    cache.invalidateAll();
+  }
+
+  long getTrackedProjects() {
+    generationByProject.cleanUp();
+    return generationByProject.estimatedSize();
+  }
+
+  private long generation(String projectPath) {
+    return generationByProject.get(projectPath, ignored -> generations.incrementAndGet());
+  }
+
+  private long ttlNanos(String operation) {
+    return ttlNanosByOperation.computeIfAbsent(operation,
+      name -> environment.getProperty(TTL_PROPERTY_PREFIX + name, Duration.class, defaultTtl).toNanos());
+  }
+
+  private record Key(String projectPath, long generation, String operation, Map<String, Object> parameters) {
+  }
+
+  private class OperationExpiry implements Expiry<Key, Query> {
+
+    @Override
+    public long expireAfterCreate(Key key, Query value, long currentTime) {
+      return ttlNanos(key.operation());
+    }
+
+    @Override
+    public long expireAfterUpdate(Key key, Query value, long currentTime, long currentDuration) {
+      return ttlNanos(key.operation());
+    }
+
+    @Override
+    public long expireAfterRead(Key key, Query value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
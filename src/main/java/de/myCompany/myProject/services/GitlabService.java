@@ -16,12 +16,23 @@ import de.myCompany.myProject.gitlab.Query;
 import de.myCompany.myProject.gitlab.util.GraphQLRequest;
 import de.myCompany.myProject.gitlab.util.MutationExecutor;
 import de.myCompany.myProject.gitlab.util.QueryExecutor;
+import de.myCompany.myProject.configurations.GitlabRoutingContext;
+import de.myCompany.myProject.monitoring.GitlabCallTrace;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import javax.validation.constraints.NotNull;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientException;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
@@ -32,7 +43,9 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 @SuppressWarnings({"UnusedReturnValue", "unused"})
 class GitlabService {
 
-  private static final String ERROR_EMPTY_PARAMETER = "Parameter '%s' must not be null or empty!";
+  static final String ERROR_EMPTY_PARAMETER = "Parameter '%s' must not be null or empty!";
+
+  private static final Pattern OPERATION_NAME = Pattern.compile("^\\s*(?:query|mutation)\\s+(\\w+)");
 
   protected static final String RANDOM_MESSAGE = UUID.randomUUID().toString();
 
@@ -40,9 +53,13 @@ class GitlabService {
 
   private final MutationExecutor mutationExecutor;
 
-  public GitlabService(QueryExecutor queryExecutor, MutationExecutor mutationExecutor) {
+  private final GitlabQueryCache queryCache;
+
+  // note: the executors are resolved on first use, so they can be initialized lazily (see StartupConfig)
+  public GitlabService(@Lazy QueryExecutor queryExecutor, @Lazy MutationExecutor mutationExecutor, GitlabQueryCache queryCache) {
     this.queryExecutor = queryExecutor;
     this.mutationExecutor = mutationExecutor;
+    this.queryCache = queryCache;
   }
 
   public void requireAccess() {
@@ -55,7 +72,7 @@ class GitlabService {
     checkArgument(isNotBlank(baseBranch), ERROR_EMPTY_PARAMETER, "baseBranch");
     checkArgument(isNotBlank(branchName), ERROR_EMPTY_PARAMETER, "branchName");
 
-    Mutation mutationResponse = callMutation(
+    Mutation mutationResponse = callMutation(projectPath,
       "mutation CREATE_BRANCH($projectPath: ID!, $sourceBranch: String!, $targetBranch: String!) {" +
         "  createBranch(" +
         "    input: {projectPath: $projectPath, name: $sourceBranch, ref: $targetBranch}" +
@@ -88,7 +105,7 @@ class GitlabService {
     // hint: create followed by update
     // * if the file cannot be created (in creation mode) it will always be updated
     // * this might be the case if creation is called twice (by same or different users)
-    Mutation mutationResponse = callMutation(
+    Mutation mutationResponse = callMutation(projectPath,
       "mutation CREATE_FILE($projectPath: ID!, $sourceBranch: String!, $createMessage: String!, $updateMessage: String!, $filePath: String!, $fileContent: String!, $create: Boolean!) {" +
         "  create: commitCreate(" +
         "    input: {projectPath: $projectPath, branch: $sourceBranch, message: $createMessage, actions: [{action: CREATE, filePath: $filePath}]}" +
@@ -119,13 +136,68 @@ class GitlabService {
     );
   }
 
+  /**
+   * Commits several files to a branch by a single update commit (same create/update semantics as the single file commit).
+   */
+  public GitlabResult commit(String projectPath, String branchName, List<CommitFile> files, String updateMessage) {
+    checkArgument(isNotBlank(projectPath), ERROR_EMPTY_PARAMETER, "projectPath");
+    checkArgument(isNotBlank(branchName), ERROR_EMPTY_PARAMETER, "branchName");
+    checkArgument(files != null && !files.isEmpty(), ERROR_EMPTY_PARAMETER, "files");
+    checkArgument(isNotBlank(updateMessage), ERROR_EMPTY_PARAMETER, "updateMessage");
+
+    StringBuilder variables = new StringBuilder("$projectPath: ID!, $sourceBranch: String!, $updateMessage: String!");
+    StringBuilder creates = new StringBuilder();
+    StringJoiner updateActions = new StringJoiner(", ");
+    Map<String, Object> parameters = new HashMap<>(Map.of(
+      "projectPath", projectPath,
+      "sourceBranch", branchName,
+      "updateMessage", updateMessage
+    ));
+
+    // hint: every file is created by its own commit, so an existing file does not prevent the creation of the others
+    for (int index = 0; index < files.size(); index++) {
+      CommitFile file = files.get(index);
+      variables.append(String.format(", $createMessage%1$d: String!, $filePath%1$d: String!, $fileContent%1$d: String!, $create%1$d: Boolean!", index));
+      creates.append(String.format(
+        "  create%1$d: commitCreate(" +
+          "    input: {projectPath: $projectPath, branch: $sourceBranch, message: $createMessage%1$d, actions: [{action: CREATE, filePath: $filePath%1$d}]}" +
+          "  ) @include (if: $create%1$d) {" +
+          "    errors" +
+          "  }", index));
+      updateActions.add(String.format("{action: UPDATE, filePath: $filePath%1$d, content: $fileContent%1$d}", index));
+
+      parameters.put("createMessage" + index, file.createMessage());
+      parameters.put("filePath" + index, file.fileName());
+      parameters.put("fileContent" + index, file.fileContent());
+      parameters.put("create" + index, file.mustBeCreated());
+    }
+
+    Mutation mutationResponse = callMutation(projectPath,
+      "mutation CREATE_FILES(" + variables + ") {" +
+        creates +
+        "  commitCreate(" +
+        "    input: {projectPath: $projectPath, branch: $sourceBranch, message: $updateMessage, actions: [" + updateActions + "]}" +
+        "  ) {" +
+        "    errors" +
+        "  }" +
+        "}",
+      parameters);
+
+    // note: wrong token just returns NULL (no exception)
+    return new GitlabResult(
+      ofNullable(mutationResponse.getCommitCreate())
+        .map(CommitCreatePayload::getErrors)
+        .orElse(List.of())
+    );
+  }
+
   public GitlabResult createMergeRequest(String projectPath, String sourceBranch, String baseBranch, String commitMessage) {
     checkArgument(isNotBlank(projectPath), ERROR_EMPTY_PARAMETER, "projectPath");
     checkArgument(isNotBlank(sourceBranch), ERROR_EMPTY_PARAMETER, "sourceBranch");
     checkArgument(isNotBlank(commitMessage), ERROR_EMPTY_PARAMETER, "commitMessage");
     checkArgument(isNotBlank(baseBranch), ERROR_EMPTY_PARAMETER, "baseBranch");
 
-    Mutation mutationResponse = callMutation(
+    Mutation mutationResponse = callMutation(projectPath,
       "mutation CREATE_MERGE($projectPath: ID!, $sourceBranch: String!, $targetBranch: String!, $commitMessage: String!) {" +
         "  mergeRequestCreate(" +
         "    input: {projectPath: $projectPath, title: $commitMessage, sourceBranch: $sourceBranch, targetBranch: $targetBranch}" +
@@ -140,7 +212,23 @@ class GitlabService {
         "commitMessage", commitMessage
       ));
 
-    Query queryResponse = callQuery(
+    // note: wrong token just returns NULL (no exception)
+    return new GitlabResult(
+      ofNullable(mutationResponse.getMergeRequestCreate())
+        .map(MergeRequestCreatePayload::getErrors)
+        .orElse(List.of()),
+      findMergeRequestWebUrl(projectPath, sourceBranch)
+        .orElseThrow(
+          () -> new IllegalStateException("WebUrl not found in Gitlab response!")
+        )
+    );
+  }
+
+  public Optional<String> findMergeRequestWebUrl(String projectPath, String sourceBranch) {
+    checkArgument(isNotBlank(projectPath), ERROR_EMPTY_PARAMETER, "projectPath");
+    checkArgument(isNotBlank(sourceBranch), ERROR_EMPTY_PARAMETER, "sourceBranch");
+
+    Query queryResponse = callQuery(projectPath,
       "query OPEN_MERGE_REQUESTS($projectPath: ID!, $sourceBranch: String!) {" +
         "  project(fullPath: $projectPath) {" +
         "    mergeRequests(state: opened, sourceBranches: [$sourceBranch], first: 1) {" +
@@ -156,21 +244,14 @@ class GitlabService {
       ));
 
     // note: wrong token just returns NULL (no exception)
-    return new GitlabResult(
-      ofNullable(mutationResponse.getMergeRequestCreate())
-        .map(MergeRequestCreatePayload::getErrors)
-        .orElse(List.of()),
-      ofNullable(queryResponse.getProject())
-        .map(Project::getMergeRequests)
-        .map(MergeRequestConnection::getNodes)
-        .orElse(List.of())
-        .stream()
-        .findFirst()
-        .map(MergeRequest::getWebUrl)
-        .orElseThrow(
-          () -> new IllegalStateException("WebUrl not found in Gitlab response!")
-        )
-    );
+    return ofNullable(queryResponse)
+      .map(Query::getProject)
+      .map(Project::getMergeRequests)
+      .map(MergeRequestConnection::getNodes)
+      .orElse(List.of())
+      .stream()
+      .findFirst()
+      .map(MergeRequest::getWebUrl);
   }
 
   protected void canCallQuery() {
@@ -213,27 +294,90 @@ class GitlabService {
       );
   }
 
+  /**
+   * Query scoped to a project; the response is served from {@link GitlabQueryCache} until it expires or we write to the project.
+   */
+  private Query callQuery(String projectPath, String queryResponseDef, Map<String, Object> parameters) {
+    return queryCache.get(projectPath, getOperationName(queryResponseDef), parameters,
+      () -> executeQuery(projectPath, queryResponseDef, parameters));
+  }
+
   @SuppressWarnings("SameParameterValue")
   private Query callQuery(String queryResponseDef, Map<String, Object> parameters) {
+    return executeQuery(null, queryResponseDef, parameters);
+  }
+
+  /**
+   * @param projectPath project of the call (NULL if none), lets the GitlabClientPool read our own writes of the project
+   */
+  private Query executeQuery(String projectPath, String queryResponseDef, Map<String, Object> parameters) {
+    try (GitlabRoutingContext ignored = GitlabRoutingContext.query(projectPath);
+         GitlabCallTrace trace = GitlabCallTrace.start(getOperationName(queryResponseDef), "query")) {
+      return trace.succeeded(queryExecutor.execWithBindValues(getObjectResponse(queryResponseDef), parameters));
+    } catch (WebClientException | GraphQLRequestExecutionException | GraphQLRequestPreparationException cause) {
+      throw toException(cause);
+    }
+  }
+
+  /**
+   * Mutation scoped to a project; cached query results of the project are dropped afterwards.
+   */
+  private Mutation callMutation(String projectPath, String queryResponseDef, Map<String, Object> parameters) {
     try {
-      return queryExecutor.execWithBindValues(getObjectResponse(queryResponseDef), parameters);
-    } catch (WebClientRequestException | GraphQLRequestExecutionException | GraphQLRequestPreparationException cause) {
-      throw new IllegalStateException("Gitlab GraphQL service not available!", cause);
+      return executeMutation(projectPath, queryResponseDef, parameters);
+    } finally {
+      // note: even a failed call might have been applied by Gitlab (e.g. lost response, partial commit)
+      queryCache.invalidate(projectPath);
     }
   }
 
   private Mutation callMutation(String queryResponseDef, Map<String, Object> parameters) {
-    try {
-      return mutationExecutor.execWithBindValues(getObjectResponse(queryResponseDef), parameters);
-    } catch (WebClientRequestException | GraphQLRequestExecutionException | GraphQLRequestPreparationException cause) {
-      throw new IllegalStateException("Gitlab GraphQL service not available!", cause);
+    return executeMutation(null, queryResponseDef, parameters);
+  }
+
+  private Mutation executeMutation(String projectPath, String queryResponseDef, Map<String, Object> parameters) {
+    try (GitlabRoutingContext ignored = GitlabRoutingContext.mutation(projectPath);
+         GitlabCallTrace trace = GitlabCallTrace.start(getOperationName(queryResponseDef), "mutation")) {
+      return trace.succeeded(mutationExecutor.execWithBindValues(getObjectResponse(queryResponseDef), parameters));
+    } catch (WebClientException | GraphQLRequestExecutionException | GraphQLRequestPreparationException cause) {
+      throw toException(cause);
+    }
+  }
+
+  /**
+   * @return {@link GitlabUnavailableException} if the call may succeed later, otherwise {@link IllegalStateException}
+   */
+  private static IllegalStateException toException(Exception cause) {
+    for (Throwable current = cause; current != null; current = current.getCause()) {
+      if (current instanceof WebClientRequestException
+            || (current instanceof WebClientResponseException responseException && isTransient(responseException.getRawStatusCode()))) {
+        return new GitlabUnavailableException("Gitlab GraphQL service not available!", cause);
+      }
     }
+    return new IllegalStateException("Gitlab GraphQL request failed!", cause);
+  }
+
+  private static boolean isTransient(int statusCode) {
+    return statusCode >= 500 || statusCode == HttpStatus.TOO_MANY_REQUESTS.value();
   }
 
   private ObjectResponse getObjectResponse(String queryResponseDef) throws GraphQLRequestPreparationException {
     return new Builder(GraphQLRequest.class).withQueryResponseDef(queryResponseDef).build();
   }
 
+  private static String getOperationName(String queryResponseDef) {
+    Matcher matcher = OPERATION_NAME.matcher(queryResponseDef);
+    return matcher.find() ? matcher.group(1) : queryResponseDef;
+  }
+
+  record CommitFile(String fileName, String fileContent, boolean mustBeCreated, String createMessage) {
+    CommitFile {
+      checkArgument(isNotBlank(fileName), ERROR_EMPTY_PARAMETER, "fileName");
+      checkArgument(isNotBlank(fileContent), ERROR_EMPTY_PARAMETER, "fileContent");
+      checkArgument(isNotBlank(createMessage), ERROR_EMPTY_PARAMETER, "createMessage");
+    }
+  }
+
   static class GitlabResult {
     @NotNull
     private final List<String> errors;
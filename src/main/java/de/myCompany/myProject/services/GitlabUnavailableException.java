@@ -0,0 +1,13 @@
+package de.myCompany.myProject.services;
+
+/**
+ * Gitlab could not be reached or is overloaded (connection failure, HTTP 5xx or 429), so the call may succeed later.<BR/>
+ * All other failures of {@link GitlabService} are thrown as {@link IllegalStateException} and must not be repeated
+ * blindly (e.g. a mutation that was applied, but whose result could not be interpreted).
+ */
+class GitlabUnavailableException extends IllegalStateException {
+
+  GitlabUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
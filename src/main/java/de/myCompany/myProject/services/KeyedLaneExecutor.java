@@ -0,0 +1,149 @@
+package de.myCompany.myProject.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes work items sharded by key on a shared pool: items of the same key ("lane") are handled strictly in order
+ * (never concurrently), items of different keys run in parallel.<BR/>
+ * A lane hands all items queued so far (at most {@code maxBatchSize}) to the handler at once, so consecutive items can
+ * be merged. The queue size of every active lane is published as {@code <name>.lane.queue} (tag {@code lane}).<BR/>
+ * If the pool rejects a lane (e.g. on shutdown), its queued items are removed and handed to the rejection handler, so
+ * the lane can be started again by the next submit.
+ */
+class KeyedLaneExecutor<T> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KeyedLaneExecutor.class);
+
+  private final String name;
+
+  private final Executor pool;
+
+  private final int maxBatchSize;
+
+  private final BiConsumer<String, List<T>> handler;
+
+  private final BiConsumer<String, List<T>> rejectionHandler;
+
+  private final MeterRegistry meterRegistry;
+
+  // note: guarded by itself (also the queues of the lanes)
+  private final Map<String, Lane> lanes = new HashMap<>();
+
+  KeyedLaneExecutor(String name, Executor pool, int maxBatchSize, BiConsumer<String, List<T>> handler,
+                    BiConsumer<String, List<T>> rejectionHandler, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.pool = pool;
+    this.maxBatchSize = maxBatchSize;
+    this.handler = handler;
+    this.rejectionHandler = rejectionHandler;
+    this.meterRegistry = meterRegistry;
+
+    Gauge.builder(name + ".lanes.active", this, KeyedLaneExecutor::getActiveLanes)
+      .description("Number of lanes with queued or running work")
+      .register(meterRegistry);
+  }
+
+  public void submit(String key, T item) {
+    Lane lane;
+    boolean start;
+    synchronized (lanes) {
+      lane = lanes.computeIfAbsent(key, Lane::new);
+      lane.queue.add(item);
+      start = !lane.running;
+      lane.running = true;
+    }
+
+    if (start) {
+      start(lane);
+    }
+  }
+
+  public int getActiveLanes() {
+    synchronized (lanes) {
+      return lanes.size();
+    }
+  }
+
+  private void run(Lane lane) {
+    List<T> batch = new ArrayList<>();
+    synchronized (lanes) {
+      while (batch.size() < maxBatchSize && !lane.queue.isEmpty()) {
+        batch.add(lane.queue.poll());
+      }
+    }
+
+    try {
+      handler.accept(lane.key, batch);
+    } catch (RuntimeException cause) {
+      LOGGER.error("Lane '{}' of {} failed", lane.key, name, cause);
+    } finally {
+      boolean continueLane;
+      synchronized (lanes) {
+        continueLane = !lane.queue.isEmpty();
+        if (!continueLane) {
+          lane.running = false;
+          lanes.remove(lane.key, lane);
+          meterRegistry.remove(lane.queueGauge);
+        }
+      }
+
+      if (continueLane) {
+        start(lane);
+      }
+    }
+  }
+
+  private void start(Lane lane) {
+    try {
+      pool.execute(() -> run(lane));
+    } catch (RejectedExecutionException cause) {
+      List<T> rejected;
+      synchronized (lanes) {
+        rejected = new ArrayList<>(lane.queue);
+        lane.queue.clear();
+        lane.running = false;
+        lanes.remove(lane.key, lane);
+        meterRegistry.remove(lane.queueGauge);
+      }
+
+      LOGGER.warn("Lane '{}' of {} rejected, {} items not handled", lane.key, name, rejected.size(), cause);
+      rejectionHandler.accept(lane.key, rejected);
+    }
+  }
+
+  private class Lane {
+    private final String key;
+
+    private final Queue<T> queue = new ArrayDeque<>();
+
+    private final Gauge queueGauge;
+
+    private boolean running;
+
+    Lane(String key) {
+      this.key = key;
+      this.queueGauge = Gauge.builder(name + ".lane.queue", this, Lane::getQueueSize)
+                          .description("Number of work items queued in a lane")
+                          .tag("lane", key)
+                          .register(meterRegistry);
+    }
+
+    private int getQueueSize() {
+      synchronized (lanes) {
+        return queue.size();
+      }
+    }
+  }
+}
@@ -0,0 +1,253 @@
+package de.myCompany.myProject.configurations;
+
+import de.myCompany.myProject.configurations.GitlabEndpointProperties.Target;
+import de.myCompany.myProject.configurations.GitlabEndpointProperties.Usage;
+import de.myCompany.myProject.monitoring.GitlabCallTrace;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GitlabClientPoolTest {
+
+  private static final String PRIMARY_URL = "https://primary/api/graphql";
+  private static final String REPLICA_URL = "https://replica/api/graphql";
+  private static final String PROJECT_PATH = "projectPath";
+  private static final Duration WINDOW = Duration.ofMinutes(1);
+
+  private final List<ClientRequest> sentRequests = new CopyOnWriteArrayList<>();
+
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    sentRequests.clear();
+  }
+
+  @Test
+  void shouldThrowException_whenCreated_ifNoTargetForQueries() {
+    assertThrows(IllegalArgumentException.class,
+      () -> new GitlabClientPool(List.of(target("primary", PRIMARY_URL, "token", 1, Usage.WRITE)), WINDOW, meterRegistry));
+  }
+
+  @Test
+  void shouldSendQueriesToReadTarget_andMutationsToWriteTarget() {
+    GitlabClientPool pool = new GitlabClientPool(List.of(
+      target("primary", PRIMARY_URL, "writeToken", 1, Usage.WRITE),
+      target("replica", REPLICA_URL, "readToken", 1, Usage.READ)
+    ), WINDOW, meterRegistry);
+
+    try (GitlabRoutingContext ignored = GitlabRoutingContext.query(null)) {
+      pool.filter(request(), respondWith(HttpStatus.OK, new HttpHeaders())).block();
+    }
+    try (GitlabRoutingContext ignored = GitlabRoutingContext.mutation(null)) {
+      pool.filter(request(), respondWith(HttpStatus.OK, new HttpHeaders())).block();
+    }
+
+    assertThat(sentRequests).hasSize(2);
+    assertThat(sentRequests.get(0).url()).hasToString(REPLICA_URL);
+    assertThat(sentRequests.get(0).headers().getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Bearer readToken");
+    assertThat(sentRequests.get(1).url()).hasToString(PRIMARY_URL);
+    assertThat(sentRequests.get(1).headers().getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Bearer writeToken");
+  }
+
+  @Test
+  void shouldSendToWriteTarget_whenFilter_ifNoRoutingContext() {
+    GitlabClientPool pool = replicatedPool(WINDOW);
+
+    // note: only the routing context counts, not the JFR trace of the call
+    try (GitlabCallTrace ignored = GitlabCallTrace.start("OPEN_MERGE_REQUESTS", "query")) {
+      pool.filter(request(), respondWith(HttpStatus.OK, new HttpHeaders())).block();
+    }
+
+    assertThat(sentRequests)
+      .extracting(request -> request.url().toString())
+      .containsExactly(PRIMARY_URL);
+  }
+
+  @Test
+  void shouldRestoreOuterContext_whenClose_ifNested() {
+    GitlabClientPool pool = replicatedPool(WINDOW);
+
+    try (GitlabRoutingContext ignored = GitlabRoutingContext.query(null)) {
+      try (GitlabRoutingContext nested = GitlabRoutingContext.mutation(null)) {
+        pool.filter(request(), respondWith(HttpStatus.OK, new HttpHeaders())).block();
+      }
+      pool.filter(request(), respondWith(HttpStatus.OK, new HttpHeaders())).block();
+    }
+
+    assertThat(GitlabRoutingContext.current()).isNull();
+    assertThat(sentRequests)
+      .extracting(request -> request.url().toString())
+      .containsExactly(PRIMARY_URL, REPLICA_URL);
+  }
+
+  @Test
+  void shouldDistributeByWeight_whenFilter_ifRequestsOutstanding() {
+    GitlabClientPool pool = new GitlabClientPool(List.of(
+      target("heavy", PRIMARY_URL, "first", 2, Usage.READ_WRITE),
+      target("light", PRIMARY_URL, "second", 1, Usage.READ_WRITE)
+    ), WINDOW, meterRegistry);
+
+    for (int index = 0; index < 6; index++) {
+      pool.filter(request(), request -> {
+        sentRequests.add(request);
+        return Mono.never();
+      }).subscribe();
+    }
+
+    assertThat(pool.getOutstanding("heavy")).isEqualTo(4);
+    assertThat(pool.getOutstanding("light")).isEqualTo(2);
+  }
+
+  @Test
+  void shouldUseOtherToken_whenFilter_ifRateLimited() {
+    GitlabClientPool pool = new GitlabClientPool(List.of(
+      target("first", PRIMARY_URL, "first", 1, Usage.READ_WRITE),
+      target("second", PRIMARY_URL, "second", 1, Usage.READ_WRITE)
+    ), WINDOW, meterRegistry);
+    HttpHeaders rateLimited = new HttpHeaders();
+    rateLimited.set(HttpHeaders.RETRY_AFTER, "60");
+
+    ClientResponse response = pool.filter(request(), request ->
+      "Bearer first".equals(request.headers().getFirst(HttpHeaders.AUTHORIZATION))
+        ? respondWith(HttpStatus.TOO_MANY_REQUESTS, rateLimited).exchange(request)
+        : respondWith(HttpStatus.OK, new HttpHeaders()).exchange(request)
+    ).block();
+
+    assertThat(response).isNotNull();
+    assertThat(response.statusCode()).isEqualTo(HttpStatus.OK);
+
+    sentRequests.clear();
+    for (int index = 0; index < 4; index++) {
+      pool.filter(request(), respondWith(HttpStatus.OK, new HttpHeaders())).block();
+    }
+
+    assertThat(sentRequests)
+      .extracting(request -> request.headers().getFirst(HttpHeaders.AUTHORIZATION))
+      .containsOnly("Bearer second");
+    assertThat(meterRegistry.get("gitlab.client.rate-limited").tag("target", "first").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldSendQueriesToWriteTarget_whenFilter_ifProjectWrittenRecently() {
+    GitlabClientPool pool = replicatedPool(WINDOW);
+
+    try (GitlabRoutingContext ignored = GitlabRoutingContext.mutation(PROJECT_PATH)) {
+      pool.filter(request(), respondWith(HttpStatus.OK, new HttpHeaders())).block();
+    }
+    try (GitlabRoutingContext ignored = GitlabRoutingContext.query(PROJECT_PATH)) {
+      pool.filter(request(), respondWith(HttpStatus.OK, new HttpHeaders())).block();
+    }
+    try (GitlabRoutingContext ignored = GitlabRoutingContext.query("otherProjectPath")) {
+      pool.filter(request(), respondWith(HttpStatus.OK, new HttpHeaders())).block();
+    }
+
+    assertThat(sentRequests)
+      .extracting(request -> request.url().toString())
+      .containsExactly(PRIMARY_URL, PRIMARY_URL, REPLICA_URL);
+  }
+
+  @Test
+  void shouldSendQueriesToReadTarget_whenFilter_ifReadAfterWriteWindowExpired() {
+    GitlabClientPool pool = replicatedPool(Duration.ZERO);
+
+    try (GitlabRoutingContext ignored = GitlabRoutingContext.mutation(PROJECT_PATH)) {
+      pool.filter(request(), respondWith(HttpStatus.OK, new HttpHeaders())).block();
+    }
+    try (GitlabRoutingContext ignored = GitlabRoutingContext.query(PROJECT_PATH)) {
+      pool.filter(request(), respondWith(HttpStatus.OK, new HttpHeaders())).block();
+    }
+
+    assertThat(sentRequests)
+      .extracting(request -> request.url().toString())
+      .containsExactly(PRIMARY_URL, REPLICA_URL);
+  }
+
+  @Test
+  void shouldKeepRequestOutstanding_whenFilter_untilBodyReleased() {
+    GitlabClientPool pool = singlePool();
+
+    ClientResponse response = pool.filter(request(), respondWith(HttpStatus.OK, new HttpHeaders())).block();
+
+    assertThat(response).isNotNull();
+    assertThat(pool.getOutstanding("primary")).isEqualTo(1);
+
+    response.releaseBody().block();
+
+    assertThat(pool.getOutstanding("primary")).isZero();
+  }
+
+  @Test
+  void shouldKeepRequestOutstanding_whenFilter_untilBodyConsumed() {
+    GitlabClientPool pool = singlePool();
+
+    ClientResponse response = pool.filter(request(), request -> {
+      sentRequests.add(request);
+      return Mono.just(ClientResponse.create(HttpStatus.OK).body("{\"data\": {}}").build());
+    }).block();
+
+    assertThat(response).isNotNull();
+    assertThat(pool.getOutstanding("primary")).isEqualTo(1);
+
+    assertThat(response.bodyToMono(String.class).block()).isEqualTo("{\"data\": {}}");
+    assertThat(pool.getOutstanding("primary")).isZero();
+  }
+
+  @Test
+  void shouldReleaseRequest_whenFilter_ifExchangeFailed() {
+    GitlabClientPool pool = singlePool();
+    IllegalStateException failure = new IllegalStateException(new IOException("Connection refused"));
+
+    assertThrows(IllegalStateException.class, () -> pool.filter(request(), request -> Mono.error(failure)).block());
+
+    assertThat(pool.getOutstanding("primary")).isZero();
+  }
+
+  private GitlabClientPool singlePool() {
+    return new GitlabClientPool(List.of(target("primary", PRIMARY_URL, "token", 1, Usage.READ_WRITE)), WINDOW, meterRegistry);
+  }
+
+  private GitlabClientPool replicatedPool(Duration readAfterWriteWindow) {
+    return new GitlabClientPool(List.of(
+      target("primary", PRIMARY_URL, "writeToken", 1, Usage.WRITE),
+      target("replica", REPLICA_URL, "readToken", 1, Usage.READ)
+    ), readAfterWriteWindow, meterRegistry);
+  }
+
+  private ExchangeFunction respondWith(HttpStatus status, HttpHeaders headers) {
+    return request -> {
+      sentRequests.add(request);
+      return Mono.just(ClientResponse.create(status).headers(responseHeaders -> responseHeaders.addAll(headers)).build());
+    };
+  }
+
+  private static ClientRequest request() {
+    return ClientRequest.create(HttpMethod.POST, URI.create(PRIMARY_URL)).build();
+  }
+
+  private static Target target(String name, String url, String token, int weight, Usage usage) {
+    Target target = new Target();
+    target.setName(name);
+    target.setUrl(url);
+    target.setToken(token);
+    target.setWeight(weight);
+    target.setUsage(usage);
+    return target;
+  }
+}
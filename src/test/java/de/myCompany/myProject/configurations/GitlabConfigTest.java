@@ -0,0 +1,63 @@
+package de.myCompany.myProject.configurations;
+
+import de.myCompany.myProject.configurations.GitlabEndpointProperties.Target;
+import de.myCompany.myProject.configurations.GitlabEndpointProperties.Usage;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitlabConfigTest {
+
+  private static final String URL = "https://primary/api/graphql";
+  private static final String REPLICA_URL = "https://replica/api/graphql";
+
+  @Test
+  void shouldResolveSingleTarget_whenResolveTargets_ifNoTargetsConfigured() {
+    GitlabEndpointProperties endpointProperties = endpointProperties();
+    endpointProperties.setToken("token");
+
+    List<Target> targets = GitlabConfig.resolveTargets(endpointProperties);
+
+    assertThat(targets).singleElement().satisfies(target -> {
+      assertThat(target.getName()).isEqualTo("target-0");
+      assertThat(target.getUrl()).isEqualTo(URL);
+      assertThat(target.getToken()).isEqualTo("token");
+      assertThat(target.getUsage()).isEqualTo(Usage.READ_WRITE);
+    });
+    assertThat(endpointProperties.getTargets()).isEmpty();
+  }
+
+  @Test
+  void shouldApplyDefaults_whenResolveTargets_withoutChangingBoundTargets() {
+    Target writeTarget = new Target();
+    writeTarget.setToken("writeToken");
+    writeTarget.setUsage(Usage.WRITE);
+    Target readTarget = new Target();
+    readTarget.setName("replica");
+    readTarget.setUrl(REPLICA_URL);
+    readTarget.setToken("readToken");
+    readTarget.setWeight(2);
+    readTarget.setUsage(Usage.READ);
+    GitlabEndpointProperties endpointProperties = endpointProperties();
+    List<Target> boundTargets = List.of(writeTarget, readTarget);
+    endpointProperties.setTargets(boundTargets);
+
+    List<Target> targets = GitlabConfig.resolveTargets(endpointProperties);
+
+    assertThat(targets).extracting(Target::getName).containsExactly("target-0", "replica");
+    assertThat(targets).extracting(Target::getUrl).containsExactly(URL, REPLICA_URL);
+    assertThat(targets).extracting(Target::getToken).containsExactly("writeToken", "readToken");
+    assertThat(targets).extracting(Target::getWeight).containsExactly(1, 2);
+    assertThat(targets).extracting(Target::getUsage).containsExactly(Usage.WRITE, Usage.READ);
+    assertThat(endpointProperties.getTargets()).isSameAs(boundTargets);
+    assertThat(writeTarget.getName()).isNull();
+    assertThat(writeTarget.getUrl()).isNull();
+  }
+
+  private static GitlabEndpointProperties endpointProperties() {
+    GitlabEndpointProperties endpointProperties = new GitlabEndpointProperties();
+    endpointProperties.setUrl(URL);
+    return endpointProperties;
+  }
+}
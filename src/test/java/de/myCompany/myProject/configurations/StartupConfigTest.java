@@ -0,0 +1,65 @@
+package de.myCompany.myProject.configurations;
+
+import de.myCompany.myProject.gitlab.util.MutationExecutor;
+import de.myCompany.myProject.gitlab.util.QueryExecutor;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import springfox.documentation.spring.web.plugins.DocumentationPluginsBootstrapper;
+
+import static de.myCompany.myProject.configurations.SpringProfiles.LOCAL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+  "startup.lazy-initialization.enabled=true"
+})
+@ActiveProfiles(LOCAL)
+class StartupConfigTest {
+
+  @Autowired
+  private ConfigurableListableBeanFactory beanFactory;
+  @Autowired
+  private Environment environment;
+  @Autowired
+  private DocumentationPluginsBootstrapper documentationBootstrapper;
+
+  @Test
+  void shouldNotInstantiateGraphQLExecutors_whenStarted_ifLazyInitializationEnabled() {
+    List<String> executorNames = executorNames();
+
+    assertThat(executorNames).isNotEmpty();
+    assertThat(executorNames).allSatisfy(beanName -> {
+      assertThat(beanFactory.getBeanDefinition(beanName).isLazyInit()).isTrue();
+      assertThat(beanFactory.containsSingleton(beanName)).isFalse();
+    });
+  }
+
+  @Test
+  @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+  void shouldInstantiateGraphQLExecutor_whenUsedFirst_ifLazyInitializationEnabled() {
+    assertThat(beanFactory.getBean(QueryExecutor.class)).isNotNull();
+
+    assertThat(beanFactory.getBeanNamesForType(QueryExecutor.class, true, false))
+      .allSatisfy(beanName -> assertThat(beanFactory.containsSingleton(beanName)).isTrue());
+  }
+
+  @Test
+  void shouldScanDocumentationWhenReady_whenStarted_ifLazyInitializationEnabled() {
+    assertThat(environment.getProperty("springfox.documentation.auto-startup")).isEqualTo("false");
+    // note: started by the listener on ApplicationReadyEvent instead of the refresh
+    assertThat(documentationBootstrapper.isAutoStartup()).isFalse();
+    assertThat(documentationBootstrapper.isRunning()).isTrue();
+  }
+
+  private List<String> executorNames() {
+    return Stream.of(MutationExecutor.class, QueryExecutor.class)
+             .flatMap(type -> Stream.of(beanFactory.getBeanNamesForType(type, true, false)))
+             .toList();
+  }
+}
@@ -0,0 +1,79 @@
+package de.myCompany.myProject.configurations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.cache.TemplateCacheKey;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TemplateWarmUpTest {
+
+  private final ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+
+  private final SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @BeforeEach
+  void setUp() {
+    templateResolver.setPrefix("public/");
+    templateResolver.setSuffix(".html");
+    templateResolver.setTemplateMode("HTML");
+    templateResolver.setCharacterEncoding("UTF-8");
+    templateResolver.setCacheable(true);
+    templateEngine.setTemplateResolver(templateResolver);
+  }
+
+  @Test
+  void shouldCacheTemplates_whenWarmUp_withoutEvaluatingExpressions() {
+    new TemplateWarmUp(templateEngine, templateResolver, meterRegistry).warmUp();
+
+    // note: 'test/bean-reference' cannot be processed without application context
+    assertThat(cachedTemplates())
+      .contains("test/greeting", "test/bean-reference")
+      .noneMatch(templateName -> templateName.startsWith("tile-management/"));
+    assertThat(meterRegistry.get("thymeleaf.warmup").timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldRenderFromCache_whenProcess_ifWarmedUp() {
+    new TemplateWarmUp(templateEngine, templateResolver, meterRegistry).warmUp();
+    Set<TemplateCacheKey> warmedUp = Set.copyOf(templateEngine.getCacheManager().getTemplateCache().keySet());
+
+    String html = templateEngine.process("test/greeting", new Context(Locale.ROOT, Map.of("name", "World")));
+
+    assertThat(html).contains("<p>World</p>");
+    assertThat(templateEngine.getCacheManager().getTemplateCache().keySet()).isEqualTo(warmedUp);
+  }
+
+  @Test
+  void shouldParseOnFirstRender_whenProcess_ifNotWarmedUp() {
+    templateEngine.process("test/greeting", new Context(Locale.ROOT, Map.of("name", "World")));
+
+    assertThat(cachedTemplates()).containsExactly("test/greeting");
+  }
+
+  @Test
+  void shouldDoNothing_whenWarmUp_ifNotCacheable() {
+    templateResolver.setCacheable(false);
+
+    new TemplateWarmUp(templateEngine, templateResolver, meterRegistry).warmUp();
+
+    assertThat(cachedTemplates()).isEmpty();
+    assertThat(meterRegistry.find("thymeleaf.warmup").timer()).isNull();
+  }
+
+  private List<String> cachedTemplates() {
+    return templateEngine.getCacheManager().getTemplateCache().keySet().stream()
+             .map(TemplateCacheKey::getTemplate)
+             .toList();
+  }
+}
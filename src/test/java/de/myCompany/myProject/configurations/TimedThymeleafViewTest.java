@@ -0,0 +1,58 @@
+package de.myCompany.myProject.configurations;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Locale;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+
+import static de.myCompany.myProject.configurations.SpringProfiles.LOCAL;
+import static de.myCompany.myProject.configurations.TimedThymeleafView.METRIC_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles(LOCAL)
+class TimedThymeleafViewTest {
+
+  @Autowired
+  @Qualifier("viewResolver")
+  private ViewResolver viewResolver;
+  @Autowired
+  private WebApplicationContext applicationContext;
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Test
+  void shouldRecordRenderTime_whenRender_ifSuccessful() throws Exception {
+    View view = viewResolver.resolveViewName("test/greeting", Locale.ROOT);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    assertThat(view).isInstanceOf(TimedThymeleafView.class);
+    view.render(Map.of("name", "World"), new MockHttpServletRequest(applicationContext.getServletContext()), response);
+
+    assertThat(response.getContentAsString()).contains("<p>World</p>");
+    assertThat(meterRegistry.get(METRIC_NAME).tag("template", "test/greeting").tag("outcome", "success").timer().count())
+      .isPositive();
+  }
+
+  @Test
+  void shouldRecordRenderTime_whenRender_ifFailed() throws Exception {
+    View view = viewResolver.resolveViewName("test/bean-reference", Locale.ROOT);
+
+    assertThat(view).isNotNull();
+    assertThrows(Exception.class,
+      () -> view.render(Map.of(), new MockHttpServletRequest(applicationContext.getServletContext()), new MockHttpServletResponse()));
+
+    assertThat(meterRegistry.get(METRIC_NAME).tag("template", "test/bean-reference").tag("outcome", "error").timer().count())
+      .isPositive();
+  }
+}
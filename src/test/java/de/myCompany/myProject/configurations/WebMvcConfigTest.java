@@ -0,0 +1,90 @@
+package de.myCompany.myProject.configurations;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.DigestUtils;
+
+import static de.myCompany.myProject.configurations.ContentHashedResourceCacheControlInterceptor.CONTENT_HASHED;
+import static de.myCompany.myProject.configurations.ContentHashedResourceCacheControlInterceptor.PAGE;
+import static de.myCompany.myProject.configurations.SpringProfiles.LOCAL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles(LOCAL)
+class WebMvcConfigTest {
+
+  private static final String ENTRY_PAGE = "/tile-management/index.html";
+
+  private static final Pattern ASSET_LINK = Pattern.compile("(?:src|href)=\"([^\"]+)\"");
+
+  private static final Pattern CONTENT_HASH = Pattern.compile("\\.([0-9a-f]{8,})\\.[^./]+$");
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void shouldBeRevalidated_whenGetEntryPage() throws Exception {
+    mockMvc.perform(get(ENTRY_PAGE))
+      .andExpect(status().isOk())
+      .andExpect(header().string(HttpHeaders.CACHE_CONTROL, PAGE));
+  }
+
+  @Test
+  void shouldServeImmutableAssets_whenFollowLinksOfEntryPage() throws Exception {
+    String entryPage = mockMvc.perform(get(ENTRY_PAGE)).andReturn().getResponse().getContentAsString();
+
+    List<String> assetPaths = assetPaths(entryPage);
+    assertThat(assetPaths).hasSize(3);
+
+    for (String assetPath : assetPaths) {
+      MockHttpServletResponse response = mockMvc.perform(get(assetPath))
+                                           .andExpect(status().isOk())
+                                           .andExpect(header().string(HttpHeaders.CACHE_CONTROL, CONTENT_HASHED))
+                                           .andReturn().getResponse();
+
+      // note: the name carries the hash of the served content, so the URL changes with every change of the content
+      Matcher contentHash = CONTENT_HASH.matcher(assetPath);
+      assertThat(contentHash.find()).as(assetPath).isTrue();
+      assertThat(DigestUtils.md5DigestAsHex(response.getContentAsByteArray())).startsWith(contentHash.group(1));
+    }
+  }
+
+  @Test
+  void shouldKeepDefault_whenGetResource_ifNotContentHashed() throws Exception {
+    mockMvc.perform(get("/tile-management/app.js"))
+      .andExpect(status().isOk())
+      .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+  }
+
+  @Test
+  void shouldNotBeImmutable_whenGetResource_ifContentHashedButMissing() throws Exception {
+    mockMvc.perform(get("/tile-management/app.00000000.js"))
+      .andExpect(status().isNotFound())
+      .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+  }
+
+  private static List<String> assetPaths(String page) {
+    URI entryPage = URI.create(ENTRY_PAGE);
+    List<String> assetPaths = new ArrayList<>();
+    Matcher link = ASSET_LINK.matcher(page);
+    while (link.find()) {
+      assetPaths.add(entryPage.resolve(link.group(1)).getPath());
+    }
+    return assetPaths;
+  }
+}
@@ -0,0 +1,144 @@
+package de.myCompany.myProject.monitoring;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.mock.http.client.reactive.MockClientHttpResponse;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunctions;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitlabCallTraceFilterTest {
+
+  // note: the operation tells the events of the test apart from the events of other calls in the same JVM
+  private static final String OPERATION = "GitlabCallTraceFilterTest";
+  private static final String OPERATION_TYPE = "query";
+
+  private static final String REQUEST_BODY = "{\"query\":\"query { currentUser { username } }\"}";
+  private static final String RESPONSE_BODY = "{\"data\":{\"currentUser\":{\"username\":\"gitlab-bot\"}}}";
+
+  @TempDir
+  Path directory;
+
+  private final GitlabCallTraceFilter filter = new GitlabCallTraceFilter();
+
+  @Test
+  void shouldEnterPhasesInOrder_whenExchange() throws IOException {
+    List<RecordedEvent> events = record(() -> {
+      try (GitlabCallTrace trace = GitlabCallTrace.start(OPERATION, OPERATION_TYPE)) {
+        assertThat(exchange(filter.apply(exchangeFunction()))).isEqualTo(RESPONSE_BODY);
+      }
+    });
+
+    assertThat(names(events)).containsExactly(
+      "de.myCompany.myProject.GitlabPreparation",
+      "de.myCompany.myProject.GitlabConnection",
+      "de.myCompany.myProject.GitlabSerialization",
+      "de.myCompany.myProject.GitlabNetwork",
+      "de.myCompany.myProject.GitlabDeserialization",
+      "de.myCompany.myProject.GitlabCall");
+  }
+
+  @Test
+  void shouldCountBytesOfRequestAndResponse_whenExchange() throws IOException {
+    long requestSize = REQUEST_BODY.getBytes(StandardCharsets.UTF_8).length;
+    long responseSize = RESPONSE_BODY.getBytes(StandardCharsets.UTF_8).length;
+
+    List<RecordedEvent> events = record(() -> {
+      try (GitlabCallTrace trace = GitlabCallTrace.start(OPERATION, OPERATION_TYPE)) {
+        exchange(filter.apply(exchangeFunction()));
+      }
+    });
+
+    // note: the request is serialized before the NETWORK phase, the response is transferred before DESERIALIZATION
+    assertThat(events).hasSize(6);
+    assertThat(events.get(1).getLong("payloadSize")).isZero();
+    assertThat(events.get(2).getLong("payloadSize")).isEqualTo(requestSize);
+    assertThat(events.get(3).getLong("payloadSize")).isEqualTo(responseSize);
+    assertThat(events.get(4).getLong("payloadSize")).isEqualTo(responseSize);
+    assertThat(events.get(5).getLong("requestSize")).isEqualTo(requestSize);
+    assertThat(events.get(5).getLong("responseSize")).isEqualTo(responseSize);
+  }
+
+  @Test
+  void shouldPassRequestThrough_whenExchange_ifNoTrace() {
+    ClientRequest request = request();
+    ClientRequest[] exchangedRequest = new ClientRequest[1];
+
+    filter.filter(request, exchanged -> {
+      exchangedRequest[0] = exchanged;
+      return Mono.empty();
+    }).block();
+
+    assertThat(GitlabCallTrace.current()).isNull();
+    assertThat(exchangedRequest[0]).isSameAs(request);
+  }
+
+  private static String exchange(ExchangeFunction exchangeFunction) {
+    return exchangeFunction.exchange(request())
+             .flatMap(response -> response.bodyToMono(String.class))
+             .block();
+  }
+
+  private static ClientRequest request() {
+    return ClientRequest.create(HttpMethod.POST, URI.create("https://gitlab/api/graphql"))
+             .body(BodyInserters.fromValue(REQUEST_BODY))
+             .build();
+  }
+
+  /**
+   * @return exchange which writes the request body and answers with {@link #RESPONSE_BODY}, like a connection would
+   */
+  private static ExchangeFunction exchangeFunction() {
+    ClientHttpConnector connector = (method, uri, requestCallback) -> {
+      MockClientHttpRequest httpRequest = new MockClientHttpRequest(method, uri);
+      MockClientHttpResponse httpResponse = new MockClientHttpResponse(HttpStatus.OK);
+      httpResponse.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+      httpResponse.setBody(RESPONSE_BODY);
+      return requestCallback.apply(httpRequest).thenReturn(httpResponse);
+    };
+    return ExchangeFunctions.create(connector);
+  }
+
+  private List<RecordedEvent> record(Runnable calls) throws IOException {
+    Path file = directory.resolve("recording.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(GitlabCallEvent.class);
+      recording.enable(GitlabPreparationEvent.class);
+      recording.enable(GitlabConnectionEvent.class);
+      recording.enable(GitlabSerializationEvent.class);
+      recording.enable(GitlabNetworkEvent.class);
+      recording.enable(GitlabDeserializationEvent.class);
+      recording.start();
+      calls.run();
+      recording.stop();
+      recording.dump(file);
+    }
+
+    return RecordingFile.readAllEvents(file).stream()
+             .filter(event -> OPERATION.equals(event.getString("operation")))
+             .sorted((event, other) -> event.getEndTime().compareTo(other.getEndTime()))
+             .collect(Collectors.toList());
+  }
+
+  private static List<String> names(List<RecordedEvent> events) {
+    return events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,169 @@
+package de.myCompany.myProject.monitoring;
+
+import de.myCompany.myProject.monitoring.GitlabCallTrace.Phase;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitlabCallTraceTest {
+
+  // note: the operation tells the events of the test apart from the events of other calls in the same JVM
+  private static final String OPERATION = "GitlabCallTraceTest";
+  private static final String OPERATION_TYPE = "query";
+
+  private static final String CALL = "de.myCompany.myProject.GitlabCall";
+  private static final String PREPARATION = "de.myCompany.myProject.GitlabPreparation";
+  private static final String CONNECTION = "de.myCompany.myProject.GitlabConnection";
+  private static final String SERIALIZATION = "de.myCompany.myProject.GitlabSerialization";
+  private static final String NETWORK = "de.myCompany.myProject.GitlabNetwork";
+  private static final String DESERIALIZATION = "de.myCompany.myProject.GitlabDeserialization";
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void shouldCommitEveryPhase_whenClose_ifAllPhasesEntered() throws IOException {
+    List<RecordedEvent> events = record(() -> {
+      try (GitlabCallTrace trace = GitlabCallTrace.start(OPERATION, OPERATION_TYPE)) {
+        trace.enter(Phase.CONNECTION);
+        trace.enter(Phase.SERIALIZATION);
+        trace.enter(Phase.NETWORK);
+        trace.enter(Phase.DESERIALIZATION);
+        trace.succeeded(null);
+      }
+    });
+
+    assertThat(names(events)).containsExactly(PREPARATION, CONNECTION, SERIALIZATION, NETWORK, DESERIALIZATION, CALL);
+    assertThat(events).allSatisfy(event -> assertThat(event.getString("operationType")).isEqualTo(OPERATION_TYPE));
+    assertThat(events.get(5).getBoolean("successful")).isTrue();
+  }
+
+  @Test
+  void shouldEndPhase_whenEnterNextPhase() throws IOException {
+    List<RecordedEvent> events = record(() -> {
+      try (GitlabCallTrace trace = GitlabCallTrace.start(OPERATION, OPERATION_TYPE)) {
+        trace.enter(Phase.CONNECTION);
+        trace.enter(Phase.NETWORK);
+      }
+    });
+
+    List<RecordedEvent> phases = events.subList(0, events.size() - 1);
+    assertThat(names(phases)).containsExactly(PREPARATION, CONNECTION, NETWORK);
+    for (int index = 1; index < phases.size(); index++) {
+      assertThat(phases.get(index).getStartTime()).isAfterOrEqualTo(phases.get(index - 1).getEndTime());
+    }
+    // note: the call spans all of its phases
+    RecordedEvent call = events.get(events.size() - 1);
+    assertThat(call.getStartTime()).isBeforeOrEqualTo(phases.get(0).getStartTime());
+    assertThat(call.getEndTime()).isAfterOrEqualTo(phases.get(phases.size() - 1).getEndTime());
+  }
+
+  @Test
+  void shouldIgnorePhase_whenEnter_ifNotAfterCurrentPhase() throws IOException {
+    List<RecordedEvent> events = record(() -> {
+      try (GitlabCallTrace trace = GitlabCallTrace.start(OPERATION, OPERATION_TYPE)) {
+        trace.enter(Phase.NETWORK);
+        // note: e.g. a late buffer of the request body after the response has started
+        trace.enter(Phase.SERIALIZATION);
+        trace.enter(Phase.NETWORK);
+        trace.enter(Phase.PREPARATION);
+      }
+    });
+
+    assertThat(names(events)).containsExactly(PREPARATION, NETWORK, CALL);
+  }
+
+  @Test
+  void shouldCommitPayloadToPhases_whenClose_ifSizesAdded() throws IOException {
+    List<RecordedEvent> events = record(() -> {
+      try (GitlabCallTrace trace = GitlabCallTrace.start(OPERATION, OPERATION_TYPE)) {
+        trace.enter(Phase.CONNECTION);
+        trace.enter(Phase.SERIALIZATION);
+        trace.addRequestSize(100);
+        trace.addRequestSize(20);
+        trace.enter(Phase.NETWORK);
+        trace.addResponseSize(300);
+        trace.addResponseSize(4);
+        trace.enter(Phase.DESERIALIZATION);
+      }
+    });
+
+    assertThat(names(events)).containsExactly(PREPARATION, CONNECTION, SERIALIZATION, NETWORK, DESERIALIZATION, CALL);
+    assertThat(events.get(0).getLong("payloadSize")).isZero();
+    assertThat(events.get(1).getLong("payloadSize")).isZero();
+    assertThat(events.get(2).getLong("payloadSize")).isEqualTo(120);
+    assertThat(events.get(3).getLong("payloadSize")).isEqualTo(304);
+    assertThat(events.get(4).getLong("payloadSize")).isEqualTo(304);
+    assertThat(events.get(5).getLong("requestSize")).isEqualTo(120);
+    assertThat(events.get(5).getLong("responseSize")).isEqualTo(304);
+    assertThat(events.get(5).getBoolean("successful")).isFalse();
+  }
+
+  @Test
+  void shouldBindTraceToThread_whenStart() throws Exception {
+    try (GitlabCallTrace trace = GitlabCallTrace.start(OPERATION, OPERATION_TYPE)) {
+      assertThat(GitlabCallTrace.current()).isSameAs(trace);
+
+      GitlabCallTrace[] otherThreadTrace = new GitlabCallTrace[1];
+      Thread otherThread = new Thread(() -> otherThreadTrace[0] = GitlabCallTrace.current());
+      otherThread.start();
+      otherThread.join();
+      assertThat(otherThreadTrace[0]).isNull();
+    }
+  }
+
+  @Test
+  void shouldClearCurrent_whenClose() {
+    GitlabCallTrace trace = GitlabCallTrace.start(OPERATION, OPERATION_TYPE);
+
+    trace.close();
+
+    assertThat(GitlabCallTrace.current()).isNull();
+  }
+
+  @Test
+  void shouldCommitNothing_whenEnter_ifClosed() throws IOException {
+    List<RecordedEvent> events = record(() -> {
+      GitlabCallTrace trace = GitlabCallTrace.start(OPERATION, OPERATION_TYPE);
+      trace.close();
+      // note: e.g. the response body completes after the caller gave up
+      trace.enter(Phase.DESERIALIZATION);
+    });
+
+    assertThat(names(events)).containsExactly(PREPARATION, CALL);
+  }
+
+  private List<RecordedEvent> record(Runnable calls) throws IOException {
+    Path file = directory.resolve("recording.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(GitlabCallEvent.class);
+      recording.enable(GitlabPreparationEvent.class);
+      recording.enable(GitlabConnectionEvent.class);
+      recording.enable(GitlabSerializationEvent.class);
+      recording.enable(GitlabNetworkEvent.class);
+      recording.enable(GitlabDeserializationEvent.class);
+      recording.start();
+      calls.run();
+      recording.stop();
+      recording.dump(file);
+    }
+
+    // note: in order of commit, the call is committed after its last phase
+    return RecordingFile.readAllEvents(file).stream()
+             .filter(event -> OPERATION.equals(event.getString("operation")))
+             .sorted((event, other) -> event.getEndTime().compareTo(other.getEndTime()))
+             .collect(Collectors.toList());
+  }
+
+  private static List<String> names(List<RecordedEvent> events) {
+    return events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,103 @@
+package de.myCompany.myProject.monitoring;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitlabJfrSummaryTest {
+
+  private static final String OPERATION = "findMergeRequest";
+  private static final String OTHER_OPERATION = "createMergeRequest";
+
+  @TempDir
+  Path directory;
+
+  private Path file;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    file = directory.resolve("recording.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(GitlabCallEvent.class);
+      recording.enable(GitlabNetworkEvent.class);
+      recording.start();
+
+      for (int sample = 1; sample <= 10; sample++) {
+        GitlabNetworkEvent networkEvent = new GitlabNetworkEvent();
+        networkEvent.begin();
+        Thread.sleep(sample);
+        networkEvent.operation = OPERATION;
+        networkEvent.payloadSize = sample * 100L;
+        networkEvent.commit();
+      }
+
+      GitlabCallEvent callEvent = new GitlabCallEvent();
+      callEvent.begin();
+      callEvent.operation = OTHER_OPERATION;
+      callEvent.requestSize = 42;
+      callEvent.responseSize = 1000;
+      callEvent.commit();
+
+      recording.stop();
+      recording.dump(file);
+    }
+  }
+
+  @Test
+  void shouldSummarizePercentilesPerOperationAndPhase_whenSummarize() throws IOException {
+    // note: the percentiles are the nearest rank of the recorded durations
+    List<Long> durations = RecordingFile.readAllEvents(file).stream()
+                             .filter(event -> OPERATION.equals(event.getString("operation")))
+                             .map(event -> event.getDuration().toNanos())
+                             .sorted()
+                             .collect(Collectors.toList());
+    assertThat(durations).hasSize(10);
+
+    List<String[]> rows = summarize();
+
+    assertThat(rows).hasSize(3);
+    assertThat(rows.get(0)).containsExactly("OPERATION", "PHASE", "COUNT", "P50", "(ms)", "P90", "(ms)", "P99", "(ms)",
+      "MAX", "(ms)", "AVG", "BYTES");
+    String callDuration = millis(recordedCallDuration());
+    // note: a call is summarized by its request size
+    assertThat(rows.get(1)).containsExactly(OTHER_OPERATION, "Call", "1", callDuration, callDuration, callDuration,
+      callDuration, "42");
+    assertThat(rows.get(2)).containsExactly(OPERATION, "Network", "10",
+      millis(durations.get(4)), millis(durations.get(8)), millis(durations.get(9)), millis(durations.get(9)), "550");
+  }
+
+  private List<String[]> summarize() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8)) {
+      GitlabJfrSummary.summarize(file, out);
+    }
+    return output.toString(StandardCharsets.UTF_8).lines()
+             .map(line -> line.trim().split("\\s+"))
+             .collect(Collectors.toList());
+  }
+
+  private long recordedCallDuration() throws IOException {
+    return RecordingFile.readAllEvents(file).stream()
+             .filter(event -> OTHER_OPERATION.equals(event.getString("operation")))
+             .map(RecordedEvent::getDuration)
+             .findFirst()
+             .orElseThrow()
+             .toNanos();
+  }
+
+  private static String millis(long nanos) {
+    return String.format("%.2f", nanos / 1_000_000.0);
+  }
+}
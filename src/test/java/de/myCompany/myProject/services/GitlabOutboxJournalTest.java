@@ -0,0 +1,151 @@
+package de.myCompany.myProject.services;
+
+import de.myCompany.myProject.services.GitlabOutboxJournal.Entry;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitlabOutboxJournalTest {
+
+  private static final int CAPACITY = 256;
+
+  // note: [int length][int crc32][byte type][long idMsb][long idLsb][long timestamp]
+  private static final int RECORD_OVERHEAD = 2 * Integer.BYTES + Byte.BYTES + 3 * Long.BYTES;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void shouldReplayPendingEntries_whenReopened_ifNotCompleted() throws Exception {
+    Entry first = entry("first");
+    Entry second = entry("second");
+    Entry third = entry("third");
+
+    try (GitlabOutboxJournal journal = new GitlabOutboxJournal(journalFile(), CAPACITY)) {
+      journal.append(first);
+      journal.append(second);
+      journal.append(third);
+      journal.complete(second.id());
+    }
+
+    try (GitlabOutboxJournal journal = new GitlabOutboxJournal(journalFile(), CAPACITY)) {
+      assertThat(ids(journal.pending())).containsExactly(first.id(), third.id());
+      assertThat(new String(journal.pending().get(1).payload(), StandardCharsets.UTF_8)).isEqualTo("third");
+    }
+  }
+
+  @Test
+  void shouldCompact_whenAppend_ifJournalFull() throws Exception {
+    Entry pending = entry("pending");
+
+    try (GitlabOutboxJournal journal = new GitlabOutboxJournal(journalFile(), CAPACITY)) {
+      journal.append(pending);
+      for (int index = 0; index < 100; index++) {
+        Entry completed = entry("completed " + index);
+        journal.append(completed);
+        journal.complete(completed.id());
+      }
+    }
+
+    try (GitlabOutboxJournal journal = new GitlabOutboxJournal(journalFile(), CAPACITY)) {
+      assertThat(ids(journal.pending())).containsExactly(pending.id());
+    }
+  }
+
+  @Test
+  void shouldGrow_whenAppend_ifPendingEntriesExceedCapacity() throws Exception {
+    try (GitlabOutboxJournal journal = new GitlabOutboxJournal(journalFile(), CAPACITY)) {
+      for (int index = 0; index < 100; index++) {
+        journal.append(entry("pending " + index));
+      }
+    }
+
+    try (GitlabOutboxJournal journal = new GitlabOutboxJournal(journalFile(), CAPACITY)) {
+      assertThat(journal.pending()).hasSize(100);
+    }
+  }
+
+  @Test
+  void shouldIgnoreRecord_whenReopened_ifTailCorrupted() throws Exception {
+    Entry first = entry("first");
+    Entry second = entry("second");
+
+    try (GitlabOutboxJournal journal = new GitlabOutboxJournal(journalFile(), CAPACITY)) {
+      journal.append(first);
+      journal.append(second);
+    }
+    // note: a single flipped byte in the payload of the last record
+    overwrite(recordSize(first) + RECORD_OVERHEAD + 1, new byte[]{'X'});
+
+    try (GitlabOutboxJournal journal = new GitlabOutboxJournal(journalFile(), CAPACITY)) {
+      assertThat(ids(journal.pending())).containsExactly(first.id());
+    }
+  }
+
+  @Test
+  void shouldIgnoreRecord_whenReopened_ifOnlyLengthPersisted() throws Exception {
+    Entry first = entry("first");
+    Entry second = entry("second");
+
+    try (GitlabOutboxJournal journal = new GitlabOutboxJournal(journalFile(), CAPACITY)) {
+      journal.append(first);
+      journal.append(second);
+    }
+    // note: power loss after the page with the length was written, but before the rest of the record
+    overwrite(recordSize(first) + Integer.BYTES, new byte[recordSize(second) - Integer.BYTES]);
+
+    try (GitlabOutboxJournal journal = new GitlabOutboxJournal(journalFile(), CAPACITY)) {
+      assertThat(ids(journal.pending())).containsExactly(first.id());
+    }
+  }
+
+  @Test
+  void shouldAppendAfterValidRecords_whenReopened_ifTailCorrupted() throws Exception {
+    Entry first = entry("first");
+    Entry second = entry("second");
+    Entry third = entry("third");
+
+    try (GitlabOutboxJournal journal = new GitlabOutboxJournal(journalFile(), CAPACITY)) {
+      journal.append(first);
+      journal.append(second);
+    }
+    overwrite(recordSize(first) + RECORD_OVERHEAD + 1, new byte[]{'X'});
+
+    try (GitlabOutboxJournal journal = new GitlabOutboxJournal(journalFile(), CAPACITY)) {
+      journal.append(third);
+    }
+
+    try (GitlabOutboxJournal journal = new GitlabOutboxJournal(journalFile(), CAPACITY)) {
+      assertThat(ids(journal.pending())).containsExactly(first.id(), third.id());
+    }
+  }
+
+  private void overwrite(long position, byte[] bytes) throws Exception {
+    try (RandomAccessFile file = new RandomAccessFile(journalFile().toFile(), "rw")) {
+      file.seek(position);
+      file.write(bytes);
+    }
+  }
+
+  private static int recordSize(Entry entry) {
+    return RECORD_OVERHEAD + entry.payload().length;
+  }
+
+  private Path journalFile() {
+    return directory.resolve("outbox.journal");
+  }
+
+  private static Entry entry(String payload) {
+    return new Entry(UUID.randomUUID(), System.currentTimeMillis(), payload.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<UUID> ids(List<Entry> entries) {
+    return entries.stream().map(Entry::id).toList();
+  }
+}
@@ -0,0 +1,365 @@
+package de.myCompany.myProject.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.myCompany.myProject.services.GitlabOutbox.OutboxEntry;
+import de.myCompany.myProject.services.GitlabOutbox.Status;
+import de.myCompany.myProject.services.GitlabService.CommitFile;
+import de.myCompany.myProject.services.GitlabService.GitlabResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class GitlabOutboxTest {
+
+  private static final String PROJECT_PATH = "projectPath";
+  private static final String BASE_BRANCH = "baseBranch";
+  private static final String SOURCE_BRANCH = "sourceBranch";
+  private static final String OTHER_BRANCH = "otherBranch";
+  private static final String BUSY_BRANCH = "busyBranch";
+  private static final String FILE_NAME = "fileName";
+  private static final String FILE_CONTENT = "fileContent";
+  private static final String CREATE_MESSAGE = "createMessage";
+  private static final String UPDATE_MESSAGE = "updateMessage";
+  private static final String TITLE_MESSAGE = "titleMessage";
+
+  private static final Duration SHORT_BACKOFF = Duration.ofMillis(1);
+  private static final Duration LONG_BACKOFF = Duration.ofHours(1);
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+  private static final int WORKERS = 2;
+
+  private static final GitlabResult SUCCESSFUL = new GitlabResult(List.of());
+
+  @TempDir
+  Path directory;
+
+  private final GitlabService gitlabService = mock(GitlabService.class);
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final List<GitlabOutbox> outboxes = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() throws Exception {
+    for (GitlabOutbox outbox : outboxes) {
+      outbox.close();
+    }
+  }
+
+  @Test
+  void shouldExecuteOperation_whenDrain() {
+    doReturn(SUCCESSFUL).when(gitlabService).createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH);
+    GitlabOutbox outbox = outbox(10, SHORT_BACKOFF);
+
+    UUID id = outbox.enqueue(GitlabOperation.createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH));
+
+    assertThat(outbox.find(id)).map(OutboxEntry::status).contains(Status.PENDING);
+    assertThat(outbox.getDepth()).isEqualTo(1);
+
+    drainUntil(outbox, () -> status(outbox, id) == Status.SUCCEEDED);
+
+    assertThat(outbox.find(id)).map(OutboxEntry::result).contains(SUCCESSFUL);
+    assertThat(outbox.getDepth()).isZero();
+    verify(gitlabService, times(1)).createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH);
+  }
+
+  @Test
+  void shouldRetryLater_whenDrain_ifGitlabUnavailable() {
+    doThrow(new GitlabUnavailableException("Gitlab GraphQL service not available!", null))
+      .when(gitlabService).createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH);
+    GitlabOutbox outbox = outbox(10, LONG_BACKOFF);
+
+    UUID id = outbox.enqueue(GitlabOperation.createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH));
+    drainUntil(outbox, () -> outbox.find(id).map(OutboxEntry::error).isPresent());
+    outbox.drain();
+    outbox.drain();
+
+    assertThat(outbox.find(id)).map(OutboxEntry::status).contains(Status.PENDING);
+    assertThat(outbox.find(id)).map(OutboxEntry::error).contains("Gitlab GraphQL service not available!");
+    // note: not retried before the backoff expired
+    verify(gitlabService, times(1)).createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH);
+  }
+
+  @Test
+  void shouldSucceed_whenDrain_ifGitlabAvailableAgain() {
+    doThrow(new GitlabUnavailableException("Gitlab GraphQL service not available!", null))
+      .doReturn(SUCCESSFUL)
+      .when(gitlabService).createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH);
+    GitlabOutbox outbox = outbox(10, SHORT_BACKOFF);
+
+    UUID id = outbox.enqueue(GitlabOperation.createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH));
+    drainUntil(outbox, () -> status(outbox, id) == Status.SUCCEEDED);
+
+    verify(gitlabService, times(2)).createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH);
+  }
+
+  @Test
+  void shouldFail_whenDrain_ifMaxAttemptsReached() {
+    doThrow(new GitlabUnavailableException("Gitlab GraphQL service not available!", null))
+      .when(gitlabService).createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH);
+    GitlabOutbox outbox = outbox(3, SHORT_BACKOFF);
+
+    UUID id = outbox.enqueue(GitlabOperation.createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH));
+    drainUntil(outbox, () -> status(outbox, id) == Status.FAILED);
+
+    verify(gitlabService, times(3)).createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH);
+  }
+
+  @Test
+  void shouldFailWithoutRetry_whenDrain_ifNotTransient() {
+    doThrow(new IllegalStateException("WebUrl not found in Gitlab response!"))
+      .when(gitlabService).createMergeRequest(PROJECT_PATH, SOURCE_BRANCH, BASE_BRANCH, TITLE_MESSAGE);
+    GitlabOutbox outbox = outbox(10, SHORT_BACKOFF);
+
+    UUID id = outbox.enqueue(GitlabOperation.createMergeRequest(PROJECT_PATH, SOURCE_BRANCH, BASE_BRANCH, TITLE_MESSAGE));
+    drainUntil(outbox, () -> status(outbox, id) == Status.FAILED);
+    outbox.drain();
+
+    assertThat(outbox.find(id)).map(OutboxEntry::error).contains("WebUrl not found in Gitlab response!");
+    verify(gitlabService, times(1)).createMergeRequest(PROJECT_PATH, SOURCE_BRANCH, BASE_BRANCH, TITLE_MESSAGE);
+  }
+
+  @Test
+  void shouldBlockLane_whenDrain_ifFormerOperationRetried() {
+    doThrow(new GitlabUnavailableException("Gitlab GraphQL service not available!", null))
+      .when(gitlabService).createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH);
+    doReturn(SUCCESSFUL).when(gitlabService).commit(anyString(), anyString(), anyString(), anyString(), anyBoolean(), anyString(), anyString());
+    GitlabOutbox outbox = outbox(10, LONG_BACKOFF);
+
+    UUID blocking = outbox.enqueue(GitlabOperation.createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH));
+    UUID blocked = outbox.enqueue(commit(SOURCE_BRANCH, FILE_NAME, FILE_CONTENT));
+    UUID independent = outbox.enqueue(commit(OTHER_BRANCH, FILE_NAME, FILE_CONTENT));
+    drainUntil(outbox, () -> status(outbox, independent) == Status.SUCCEEDED && outbox.find(blocking).map(OutboxEntry::error).isPresent());
+    outbox.drain();
+
+    assertThat(outbox.find(blocked)).map(OutboxEntry::status).contains(Status.PENDING);
+    verify(gitlabService, never()).commit(PROJECT_PATH, SOURCE_BRANCH, FILE_NAME, FILE_CONTENT, true, CREATE_MESSAGE, UPDATE_MESSAGE);
+    verify(gitlabService, times(1)).commit(PROJECT_PATH, OTHER_BRANCH, FILE_NAME, FILE_CONTENT, true, CREATE_MESSAGE, UPDATE_MESSAGE);
+  }
+
+  @Test
+  void shouldBlockBranchCreation_whenDrain_ifFormerOperationOnBaseBranchRetried() {
+    doThrow(new GitlabUnavailableException("Gitlab GraphQL service not available!", null))
+      .when(gitlabService).commit(anyString(), anyString(), anyString(), anyString(), anyBoolean(), anyString(), anyString());
+    GitlabOutbox outbox = outbox(10, LONG_BACKOFF);
+
+    UUID blocking = outbox.enqueue(commit(BASE_BRANCH, FILE_NAME, FILE_CONTENT));
+    UUID blocked = outbox.enqueue(GitlabOperation.createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH));
+    drainUntil(outbox, () -> outbox.find(blocking).map(OutboxEntry::error).isPresent());
+    outbox.drain();
+
+    assertThat(outbox.find(blocked)).map(OutboxEntry::status).contains(Status.PENDING);
+    verify(gitlabService, never()).createBranch(anyString(), anyString(), anyString());
+  }
+
+  @Test
+  void shouldBlockBaseBranch_whenDrain_ifFormerMergeRequestRetried() {
+    doThrow(new GitlabUnavailableException("Gitlab GraphQL service not available!", null))
+      .when(gitlabService).createMergeRequest(PROJECT_PATH, SOURCE_BRANCH, BASE_BRANCH, TITLE_MESSAGE);
+    GitlabOutbox outbox = outbox(10, LONG_BACKOFF);
+
+    UUID blocking = outbox.enqueue(GitlabOperation.createMergeRequest(PROJECT_PATH, SOURCE_BRANCH, BASE_BRANCH, TITLE_MESSAGE));
+    UUID blocked = outbox.enqueue(commit(BASE_BRANCH, FILE_NAME, FILE_CONTENT));
+    drainUntil(outbox, () -> outbox.find(blocking).map(OutboxEntry::error).isPresent());
+    outbox.drain();
+
+    assertThat(outbox.find(blocked)).map(OutboxEntry::status).contains(Status.PENDING);
+    verify(gitlabService, never()).commit(anyString(), anyString(), anyString(), anyString(), anyBoolean(), anyString(), anyString());
+  }
+
+  @Test
+  void shouldCommitLatestContentOnce_whenDrain_ifSameFileCommittedTwice() {
+    doReturn(SUCCESSFUL).when(gitlabService).commit(anyString(), anyString(), anyList(), anyString());
+    GitlabOutbox outbox = outbox(10, SHORT_BACKOFF);
+    CountDownLatch workersBusy = occupyWorkers(outbox);
+
+    UUID first = outbox.enqueue(GitlabOperation.commit(PROJECT_PATH, SOURCE_BRANCH, FILE_NAME, "first", true, CREATE_MESSAGE, "first update"));
+    UUID other = outbox.enqueue(GitlabOperation.commit(PROJECT_PATH, SOURCE_BRANCH, "otherFileName", FILE_CONTENT, false, CREATE_MESSAGE, "other update"));
+    UUID latest = outbox.enqueue(GitlabOperation.commit(PROJECT_PATH, SOURCE_BRANCH, FILE_NAME, "latest", false, "latestCreateMessage", "latest update"));
+    outbox.drain();
+    workersBusy.countDown();
+    drainUntil(outbox, () -> Stream.of(first, other, latest).allMatch(id -> status(outbox, id) == Status.SUCCEEDED));
+
+    verify(gitlabService, times(1)).commit(PROJECT_PATH, SOURCE_BRANCH,
+      List.of(
+        new CommitFile(FILE_NAME, "latest", true, CREATE_MESSAGE),
+        new CommitFile("otherFileName", FILE_CONTENT, false, CREATE_MESSAGE)
+      ),
+      "first update\nother update\nlatest update");
+    verify(gitlabService, never()).commit(eq(PROJECT_PATH), eq(SOURCE_BRANCH), anyString(), anyString(), anyBoolean(), anyString(), anyString());
+    assertThat(meterRegistry.get("gitlab.outbox.merged-commits").counter().count()).isEqualTo(3);
+  }
+
+  @Test
+  void shouldMergeOnlyConsecutiveCommits_whenDrain_ifMixedWithBranchOperations() {
+    doReturn(SUCCESSFUL).when(gitlabService).createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH);
+    doReturn(SUCCESSFUL).when(gitlabService).commit(anyString(), anyString(), anyList(), anyString());
+    doReturn(SUCCESSFUL).when(gitlabService).createMergeRequest(PROJECT_PATH, SOURCE_BRANCH, BASE_BRANCH, TITLE_MESSAGE);
+    doReturn(SUCCESSFUL).when(gitlabService).commit(PROJECT_PATH, SOURCE_BRANCH, "lastFileName", FILE_CONTENT, true, CREATE_MESSAGE, UPDATE_MESSAGE);
+    GitlabOutbox outbox = outbox(10, SHORT_BACKOFF);
+    CountDownLatch workersBusy = occupyWorkers(outbox);
+
+    List<UUID> ids = Stream.of(
+      GitlabOperation.createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH),
+      commit(SOURCE_BRANCH, FILE_NAME, FILE_CONTENT),
+      commit(SOURCE_BRANCH, "otherFileName", FILE_CONTENT),
+      GitlabOperation.createMergeRequest(PROJECT_PATH, SOURCE_BRANCH, BASE_BRANCH, TITLE_MESSAGE),
+      commit(SOURCE_BRANCH, "lastFileName", FILE_CONTENT)
+    ).map(outbox::enqueue).toList();
+    outbox.drain();
+    workersBusy.countDown();
+    drainUntil(outbox, () -> ids.stream().allMatch(id -> status(outbox, id) == Status.SUCCEEDED));
+
+    InOrder inOrder = inOrder(gitlabService);
+    inOrder.verify(gitlabService).createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH);
+    inOrder.verify(gitlabService).commit(PROJECT_PATH, SOURCE_BRANCH,
+      List.of(
+        new CommitFile(FILE_NAME, FILE_CONTENT, true, CREATE_MESSAGE),
+        new CommitFile("otherFileName", FILE_CONTENT, true, CREATE_MESSAGE)
+      ),
+      UPDATE_MESSAGE);
+    inOrder.verify(gitlabService).createMergeRequest(PROJECT_PATH, SOURCE_BRANCH, BASE_BRANCH, TITLE_MESSAGE);
+    inOrder.verify(gitlabService).commit(PROJECT_PATH, SOURCE_BRANCH, "lastFileName", FILE_CONTENT, true, CREATE_MESSAGE, UPDATE_MESSAGE);
+    assertThat(meterRegistry.get("gitlab.outbox.merged-commits").counter().count()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldShareResult_whenDrain_ifCommitsMerged() {
+    GitlabResult failed = new GitlabResult(List.of("File already exists"));
+    doReturn(failed).when(gitlabService).commit(anyString(), anyString(), anyList(), anyString());
+    GitlabOutbox outbox = outbox(10, SHORT_BACKOFF);
+    CountDownLatch workersBusy = occupyWorkers(outbox);
+
+    List<UUID> ids = Stream.of(FILE_NAME, "otherFileName", "lastFileName")
+                       .map(fileName -> outbox.enqueue(commit(SOURCE_BRANCH, fileName, FILE_CONTENT)))
+                       .toList();
+    outbox.drain();
+    workersBusy.countDown();
+    drainUntil(outbox, () -> ids.stream().allMatch(id -> status(outbox, id) == Status.SUCCEEDED));
+
+    assertThat(ids).allSatisfy(id -> assertThat(outbox.find(id)).map(OutboxEntry::result).containsSame(failed));
+    verify(gitlabService, times(1)).commit(eq(PROJECT_PATH), eq(SOURCE_BRANCH), anyList(), eq(UPDATE_MESSAGE));
+  }
+
+  @Test
+  void shouldExecutePendingOperations_whenRestarted() throws Exception {
+    doReturn(SUCCESSFUL).when(gitlabService).commit(anyString(), anyString(), anyString(), anyString(), anyBoolean(), anyString(), anyString());
+    GitlabOutbox stopped = outbox(10, SHORT_BACKOFF);
+    UUID id = stopped.enqueue(commit(SOURCE_BRANCH, FILE_NAME, FILE_CONTENT));
+    stopped.close();
+
+    GitlabOutbox restarted = outbox(10, SHORT_BACKOFF);
+
+    assertThat(restarted.find(id)).map(OutboxEntry::status).contains(Status.PENDING);
+    drainUntil(restarted, () -> status(restarted, id) == Status.SUCCEEDED);
+    verify(gitlabService, times(1)).commit(PROJECT_PATH, SOURCE_BRANCH, FILE_NAME, FILE_CONTENT, true, CREATE_MESSAGE, UPDATE_MESSAGE);
+  }
+
+  @Test
+  void shouldNotExecuteOperations_whenDrain_ifClosed() throws Exception {
+    GitlabOutbox outbox = outbox(10, SHORT_BACKOFF);
+    UUID id = outbox.enqueue(commit(SOURCE_BRANCH, FILE_NAME, FILE_CONTENT));
+
+    outbox.close();
+    outbox.drain();
+
+    assertThat(outbox.find(id)).map(OutboxEntry::status).contains(Status.PENDING);
+    verify(gitlabService, never()).commit(anyString(), anyString(), anyString(), anyString(), anyBoolean(), anyString(), anyString());
+  }
+
+  @Test
+  void shouldKeepOperation_whenSerializedToJournal() throws Exception {
+    List<GitlabOperation> operations = List.of(
+      GitlabOperation.createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH),
+      commit(SOURCE_BRANCH, FILE_NAME, FILE_CONTENT),
+      GitlabOperation.createMergeRequest(PROJECT_PATH, SOURCE_BRANCH, BASE_BRANCH, TITLE_MESSAGE)
+    );
+
+    for (GitlabOperation operation : operations) {
+      assertThat(objectMapper.readValue(objectMapper.writeValueAsBytes(operation), GitlabOperation.class)).isEqualTo(operation);
+    }
+  }
+
+  private GitlabOutbox outbox(int maxAttempts, Duration initialBackoff) {
+    try {
+      GitlabOutbox outbox = new GitlabOutbox(gitlabService, objectMapper, meterRegistry, directory, DataSize.ofKilobytes(64),
+        WORKERS, 50, maxAttempts, initialBackoff, Duration.ofHours(1), TIMEOUT);
+      outboxes.add(outbox);
+      return outbox;
+    } catch (Exception cause) {
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Blocks all workers by commits on other branches until the returned latch is counted down, so the operations drained
+   * meanwhile are queued in their lanes and handed to the lane as one batch.
+   */
+  private CountDownLatch occupyWorkers(GitlabOutbox outbox) {
+    CountDownLatch workersBusy = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      workersBusy.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+      return SUCCESSFUL;
+    }).when(gitlabService).commit(eq(PROJECT_PATH), startsWith(BUSY_BRANCH), anyString(), anyString(), anyBoolean(), anyString(), anyString());
+
+    for (int worker = 0; worker < WORKERS; worker++) {
+      outbox.enqueue(commit(BUSY_BRANCH + worker, FILE_NAME, FILE_CONTENT));
+    }
+    return workersBusy;
+  }
+
+  private static GitlabOperation commit(String branchName, String fileName, String fileContent) {
+    return GitlabOperation.commit(PROJECT_PATH, branchName, fileName, fileContent, true, CREATE_MESSAGE, UPDATE_MESSAGE);
+  }
+
+  private static Status status(GitlabOutbox outbox, UUID id) {
+    return outbox.find(id).map(OutboxEntry::status).orElse(null);
+  }
+
+  // note: drain() is called by the scheduler in production
+  private static void drainUntil(GitlabOutbox outbox, BooleanSupplier condition) {
+    long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        fail("Condition not reached within " + TIMEOUT);
+      }
+      outbox.drain();
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException cause) {
+        Thread.currentThread().interrupt();
+        fail("Interrupted");
+      }
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package de.myCompany.myProject.services;
+
+import de.myCompany.myProject.gitlab.Query;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitlabQueryCacheTest {
+
+  private static final String PROJECT_PATH = "projectPath";
+  private static final String OPERATION = "OPEN_MERGE_REQUESTS";
+  private static final Map<String, Object> PARAMETERS = Map.of("projectPath", PROJECT_PATH);
+
+  private final GitlabQueryCache queryCache =
+    new GitlabQueryCache(new MockEnvironment(), new SimpleMeterRegistry(), 10, Duration.ofMinutes(1));
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void shouldLoadOnce_whenGet_ifCalledTwice() {
+    queryCache.get(PROJECT_PATH, OPERATION, PARAMETERS, this::load);
+    queryCache.get(PROJECT_PATH, OPERATION, PARAMETERS, this::load);
+
+    assertThat(loads.get()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldLoadAgain_whenGet_ifInvalidatedDuringLoad() {
+    queryCache.get(PROJECT_PATH, OPERATION, PARAMETERS, () -> {
+      queryCache.invalidate(PROJECT_PATH);
+      return load();
+    });
+    queryCache.get(PROJECT_PATH, OPERATION, PARAMETERS, this::load);
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldBoundTrackedProjects_whenGet_ifManyProjects() {
+    for (int project = 0; project < 1000; project++) {
+      queryCache.get(PROJECT_PATH + project, OPERATION, PARAMETERS, this::load);
+      queryCache.invalidate(PROJECT_PATH + project);
+    }
+
+    assertThat(queryCache.getTrackedProjects()).isLessThanOrEqualTo(10);
+  }
+
+  @Test
+  void shouldLoadAgain_whenGet_ifProjectDroppedAndInvalidatedDuringLoad() {
+    queryCache.get(PROJECT_PATH, OPERATION, PARAMETERS, () -> {
+      queryCache.invalidate(PROJECT_PATH);
+      // note: pushes the project out of the bounded generations
+      for (int project = 0; project < 100; project++) {
+        queryCache.invalidate(PROJECT_PATH + project);
+      }
+      return load();
+    });
+    queryCache.get(PROJECT_PATH, OPERATION, PARAMETERS, this::load);
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  private Query load() {
+    loads.incrementAndGet();
+    return Query.builder().build();
+  }
+}
@@ -0,0 +1,118 @@
+package de.myCompany.myProject.services;
+
+import com.graphql_java_generator.client.request.ObjectResponse;
+import de.myCompany.myProject.configurations.GitlabClientPool;
+import de.myCompany.myProject.gitlab.MergeRequest;
+import de.myCompany.myProject.gitlab.MergeRequestConnection;
+import de.myCompany.myProject.gitlab.MergeRequestCreatePayload;
+import de.myCompany.myProject.gitlab.Mutation;
+import de.myCompany.myProject.gitlab.Project;
+import de.myCompany.myProject.gitlab.Query;
+import de.myCompany.myProject.gitlab.util.MutationExecutor;
+import de.myCompany.myProject.gitlab.util.QueryExecutor;
+import de.myCompany.myProject.services.GitlabService.GitlabResult;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+
+import static de.myCompany.myProject.configurations.SpringProfiles.LOCAL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Routing of the calls of {@link GitlabService} if queries are served by a READ replica, which may lag behind.
+ */
+@SpringBootTest(properties = {
+  "graphql.endpoint.targets[0].name=primary",
+  "graphql.endpoint.targets[0].url=" + GitlabServiceReplicaTest.PRIMARY_URL,
+  "graphql.endpoint.targets[0].usage=WRITE",
+  "graphql.endpoint.targets[1].name=replica",
+  "graphql.endpoint.targets[1].url=" + GitlabServiceReplicaTest.REPLICA_URL,
+  "graphql.endpoint.targets[1].usage=READ"
+})
+@ActiveProfiles(LOCAL)
+class GitlabServiceReplicaTest {
+
+  static final String PRIMARY_URL = "https://primary/api/graphql";
+  static final String REPLICA_URL = "https://replica/api/graphql";
+
+  private static final String PROJECT_PATH = "projectPath";
+  private static final String SOURCE_BRANCH = "sourceBranch";
+  private static final String BASE_BRANCH = "baseBranch";
+  private static final String TITLE_MESSAGE = "titleMessage";
+  private static final String WEB_URL = "webUrl";
+
+  @MockBean
+  private QueryExecutor queryExecutor;
+  @MockBean
+  private MutationExecutor mutationExecutor;
+  @Autowired
+  private GitlabClientPool gitlabClientPool;
+  @Autowired
+  private GitlabService gitlabService;
+
+  private final List<String> sentUrls = new CopyOnWriteArrayList<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    // note: the executors are mocked, their requests are routed by the real pool (on the calling thread)
+    doAnswer(invocation -> {
+      sendThroughPool();
+      return Mutation.builder().withMergeRequestCreate(
+        MergeRequestCreatePayload.builder().withErrors(List.of()).build()
+      ).build();
+    })
+      .when(mutationExecutor)
+      .execWithBindValues(any(ObjectResponse.class), anyMap());
+    doAnswer(invocation -> {
+      sendThroughPool();
+      return Query.builder().withProject(
+        Project.builder().withMergeRequests(
+          MergeRequestConnection.builder().withNodes(
+            List.of(MergeRequest.builder().withWebUrl(WEB_URL).build())
+          ).build()
+        ).build()
+      ).build();
+    })
+      .when(queryExecutor)
+      .execWithBindValues(any(ObjectResponse.class), anyMap());
+  }
+
+  @Test
+  void shouldReadFromWriteTarget_whenCreateMergeRequest_ifReadReplicaConfigured() {
+    GitlabResult gitlabResult = gitlabService.createMergeRequest(PROJECT_PATH, SOURCE_BRANCH, BASE_BRANCH, TITLE_MESSAGE);
+
+    assertThat(gitlabResult.getWebUrl()).isEqualTo(WEB_URL);
+    // note: the merge request was just created on the primary, the replica might not know it yet
+    assertThat(sentUrls).containsExactly(PRIMARY_URL, PRIMARY_URL);
+  }
+
+  @Test
+  void shouldReadFromReplica_whenFindMergeRequestWebUrl_ifProjectNotWritten() {
+    assertThat(gitlabService.findMergeRequestWebUrl("otherProjectPath", SOURCE_BRANCH)).contains(WEB_URL);
+
+    assertThat(sentUrls).containsExactly(REPLICA_URL);
+  }
+
+  private void sendThroughPool() {
+    gitlabClientPool.filter(ClientRequest.create(HttpMethod.POST, URI.create(PRIMARY_URL)).build(), request -> {
+        sentUrls.add(request.url().toString());
+        return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+      })
+      .flatMap(ClientResponse::releaseBody)
+      .block();
+  }
+}
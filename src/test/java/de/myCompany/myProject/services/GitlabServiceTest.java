@@ -14,10 +14,14 @@ import de.myCompany.myProject.gitlab.Project;
 import de.myCompany.myProject.gitlab.Query;
 import de.myCompany.myProject.gitlab.util.MutationExecutor;
 import de.myCompany.myProject.gitlab.util.QueryExecutor;
+import de.myCompany.myProject.services.GitlabService.CommitFile;
 import de.myCompany.myProject.services.GitlabService.GitlabResult;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -56,11 +60,17 @@ class GitlabServiceTest {
   private QueryExecutor queryExecutor;
   @MockBean
   private MutationExecutor mutationExecutor;
+  @Captor
+  private ArgumentCaptor<Map<String, Object>> parametersCaptor;
   @Autowired
   private GitlabService gitlabService;
+  @Autowired
+  private GitlabQueryCache queryCache;
 
   @BeforeEach
   void setUp() throws Exception {
+    queryCache.invalidateAll();
+
     doReturn(RANDOM_MESSAGE).when(queryExecutor).echo(anyString(), anyString());
     doReturn(
       EchoCreatePayload.builder()
@@ -194,6 +204,28 @@ class GitlabServiceTest {
     verify(mutationExecutor, only()).execWithBindValues(any(ObjectResponse.class), anyMap());
   }
 
+  @Test
+  void shouldThrowUnavailableException_whenCreateBranch_ifGitlabNotReachable() throws Exception {
+    doThrow(WebClientRequestException.class)
+      .when(mutationExecutor)
+      .execWithBindValues(any(ObjectResponse.class), anyMap());
+
+    assertThrows(GitlabUnavailableException.class,
+      () -> gitlabService.createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH));
+  }
+
+  @Test
+  void shouldThrowNonTransientException_whenCreateBranch_ifRequestFailed() throws Exception {
+    doThrow(GraphQLRequestExecutionException.class)
+      .when(mutationExecutor)
+      .execWithBindValues(any(ObjectResponse.class), anyMap());
+
+    IllegalStateException exception = assertThrows(IllegalStateException.class,
+      () -> gitlabService.createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH));
+
+    assertThat(exception).isNotInstanceOf(GitlabUnavailableException.class);
+  }
+
   @Test
   void shouldThrowException_whenCreateBranch_ifParameterNull() {
     assertThrows(IllegalArgumentException.class, () -> gitlabService.createBranch(null, BASE_BRANCH, SOURCE_BRANCH));
@@ -322,6 +354,46 @@ class GitlabServiceTest {
     verify(mutationExecutor, only()).execWithBindValues(any(ObjectResponse.class), anyMap());
   }
 
+  @Test
+  void shouldRun_whenCommitFiles_ifNoErrorsOnMutation() throws Exception {
+    doReturn(
+      Mutation.builder().withCommitCreate(
+        CommitCreatePayload.builder().build()
+      ).build())
+      .when(mutationExecutor)
+      .execWithBindValues(any(ObjectResponse.class), anyMap());
+
+    GitlabResult gitlabResult = gitlabService.commit(PROJECT_PATH, SOURCE_BRANCH,
+      List.of(
+        new CommitFile(FILE_NAME, FILE_CONTENT, true, CREATE_MESSAGE),
+        new CommitFile("otherFileName", FILE_CONTENT, false, CREATE_MESSAGE)
+      ),
+      UPDATE_MESSAGE);
+
+    assertThat(gitlabResult.getErrors()).isNotNull().isEmpty();
+    assertThat(gitlabResult.successful()).isTrue();
+
+    verify(mutationExecutor, only()).execWithBindValues(any(ObjectResponse.class), parametersCaptor.capture());
+    assertThat(parametersCaptor.getValue())
+      .containsEntry("projectPath", PROJECT_PATH)
+      .containsEntry("sourceBranch", SOURCE_BRANCH)
+      .containsEntry("updateMessage", UPDATE_MESSAGE)
+      .containsEntry("filePath0", FILE_NAME)
+      .containsEntry("fileContent0", FILE_CONTENT)
+      .containsEntry("create0", true)
+      .containsEntry("createMessage0", CREATE_MESSAGE)
+      .containsEntry("filePath1", "otherFileName")
+      .containsEntry("fileContent1", FILE_CONTENT)
+      .containsEntry("create1", false)
+      .containsEntry("createMessage1", CREATE_MESSAGE);
+  }
+
+  @Test
+  void shouldThrowException_whenCommitFiles_ifNoFiles() {
+    assertThrows(IllegalArgumentException.class, () -> gitlabService.commit(PROJECT_PATH, SOURCE_BRANCH, List.of(), UPDATE_MESSAGE));
+    assertThrows(IllegalArgumentException.class, () -> gitlabService.commit(PROJECT_PATH, SOURCE_BRANCH, null, UPDATE_MESSAGE));
+  }
+
   @Test
   void shouldThrowException_whenCreateMergeRequest_ifGitlabNotReachable() throws Exception {
     doThrow(WebClientRequestException.class)
@@ -398,6 +470,46 @@ class GitlabServiceTest {
     verify(mutationExecutor, times(1)).execWithBindValues(any(ObjectResponse.class), anyMap());
   }
 
+  @Test
+  void shouldUseCache_whenFindMergeRequestWebUrl_ifCalledTwice() throws Exception {
+    String webUrl = "webUrl";
+    mockMergeRequestsQuery(webUrl);
+
+    assertThat(gitlabService.findMergeRequestWebUrl(PROJECT_PATH, SOURCE_BRANCH)).contains(webUrl);
+    assertThat(gitlabService.findMergeRequestWebUrl(PROJECT_PATH, SOURCE_BRANCH)).contains(webUrl);
+
+    verify(queryExecutor, times(1)).execWithBindValues(any(ObjectResponse.class), anyMap());
+  }
+
+  @Test
+  void shouldNotUseCache_whenFindMergeRequestWebUrl_ifOtherSourceBranch() throws Exception {
+    mockMergeRequestsQuery("webUrl");
+
+    gitlabService.findMergeRequestWebUrl(PROJECT_PATH, SOURCE_BRANCH);
+    gitlabService.findMergeRequestWebUrl(PROJECT_PATH, BASE_BRANCH);
+
+    verify(queryExecutor, times(2)).execWithBindValues(any(ObjectResponse.class), anyMap());
+  }
+
+  @Test
+  void shouldInvalidateCache_whenCreateBranch_ifSameProject() throws Exception {
+    mockMergeRequestsQuery("webUrl");
+    doReturn(
+      Mutation.builder().withCreateBranch(
+        CreateBranchPayload.builder().build()
+      ).build())
+      .when(mutationExecutor)
+      .execWithBindValues(any(ObjectResponse.class), anyMap());
+
+    gitlabService.findMergeRequestWebUrl(PROJECT_PATH, SOURCE_BRANCH);
+    gitlabService.findMergeRequestWebUrl("otherProjectPath", SOURCE_BRANCH);
+    gitlabService.createBranch(PROJECT_PATH, BASE_BRANCH, SOURCE_BRANCH);
+    gitlabService.findMergeRequestWebUrl(PROJECT_PATH, SOURCE_BRANCH);
+    gitlabService.findMergeRequestWebUrl("otherProjectPath", SOURCE_BRANCH);
+
+    verify(queryExecutor, times(3)).execWithBindValues(any(ObjectResponse.class), anyMap());
+  }
+
   private void mockMergeRequestCreateMutation(List<String> errors) throws GraphQLRequestExecutionException {
     doReturn(
       Mutation.builder().withMergeRequestCreate(
@@ -0,0 +1,135 @@
+package de.myCompany.myProject.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+class KeyedLaneExecutorTest {
+
+  private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  void shouldExecuteInOrder_whenSubmit_ifSameKey() throws Exception {
+    List<Integer> executed = new CopyOnWriteArrayList<>();
+    AtomicInteger concurrent = new AtomicInteger();
+    AtomicInteger maxConcurrent = new AtomicInteger();
+    CountDownLatch done = new CountDownLatch(100);
+
+    KeyedLaneExecutor<Integer> executor = new KeyedLaneExecutor<>("test", pool, 10, (key, items) -> {
+      maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+      executed.addAll(items);
+      concurrent.decrementAndGet();
+      items.forEach(item -> done.countDown());
+    }, KeyedLaneExecutorTest::notRejected, meterRegistry);
+
+    for (int item = 0; item < 100; item++) {
+      executor.submit("lane", item);
+    }
+
+    assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(executed).isSorted().hasSize(100);
+    assertThat(maxConcurrent.get()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldExecuteInParallel_whenSubmit_ifDifferentKeys() throws Exception {
+    CountDownLatch bothRunning = new CountDownLatch(2);
+    Map<String, Boolean> parallel = new ConcurrentHashMap<>();
+
+    KeyedLaneExecutor<String> executor = new KeyedLaneExecutor<>("test", pool, 10, (key, items) -> {
+      bothRunning.countDown();
+      try {
+        parallel.put(key, bothRunning.await(10, TimeUnit.SECONDS));
+      } catch (InterruptedException cause) {
+        Thread.currentThread().interrupt();
+      }
+    }, KeyedLaneExecutorTest::notRejected, meterRegistry);
+
+    executor.submit("first", "item");
+    executor.submit("second", "item");
+
+    assertThat(bothRunning.await(10, TimeUnit.SECONDS)).isTrue();
+    pool.shutdown();
+    assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(parallel).containsEntry("first", true).containsEntry("second", true);
+  }
+
+  @Test
+  void shouldRemoveLane_whenDrained() throws Exception {
+    CountDownLatch done = new CountDownLatch(1);
+    KeyedLaneExecutor<String> executor = new KeyedLaneExecutor<>("test", pool, 10, (key, items) -> done.countDown(),
+      KeyedLaneExecutorTest::notRejected, meterRegistry);
+
+    executor.submit("lane", "item");
+
+    assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    pool.shutdown();
+    assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(executor.getActiveLanes()).isZero();
+    assertThat(meterRegistry.find("test.lane.queue").gauges()).isEmpty();
+  }
+
+  @Test
+  void shouldHandOverItems_whenSubmit_ifPoolRejects() {
+    Map<String, List<String>> rejected = new ConcurrentHashMap<>();
+    pool.shutdown();
+
+    KeyedLaneExecutor<String> executor = new KeyedLaneExecutor<>("test", pool, 10,
+      (key, items) -> fail("must not be executed"), rejected::put, meterRegistry);
+
+    executor.submit("lane", "item");
+
+    assertThat(rejected).containsEntry("lane", List.of("item"));
+    assertThat(executor.getActiveLanes()).isZero();
+    assertThat(meterRegistry.find("test.lane.queue").gauges()).isEmpty();
+  }
+
+  @Test
+  void shouldRestartLane_whenSubmit_ifPoolRejectedBefore() throws Exception {
+    List<String> rejected = new CopyOnWriteArrayList<>();
+    List<String> executed = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(1);
+    AtomicInteger executions = new AtomicInteger();
+
+    KeyedLaneExecutor<String> executor = new KeyedLaneExecutor<>("test", command -> {
+      if (executions.getAndIncrement() == 0) {
+        throw new RejectedExecutionException("busy");
+      }
+      pool.execute(command);
+    }, 10, (key, items) -> {
+      executed.addAll(items);
+      done.countDown();
+    }, (key, items) -> rejected.addAll(items), meterRegistry);
+
+    executor.submit("lane", "first");
+    executor.submit("lane", "second");
+
+    assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(rejected).containsExactly("first");
+    assertThat(executed).containsExactly("second");
+  }
+
+  private static void notRejected(String key, List<?> items) {
+    fail("Lane '" + key + "' rejected");
+  }
+}